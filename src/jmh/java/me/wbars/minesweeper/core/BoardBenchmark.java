@@ -0,0 +1,113 @@
+package me.wbars.minesweeper.core;
+
+import me.wbars.minesweeper.util.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link Board} on square boards of the given side and mine density.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardBenchmark {
+    private static final long SEED = 42;
+
+    @State(Scope.Thread)
+    public static class Spec {
+        @Param({"9", "64", "512", "4096"})
+        public int size;
+
+        @Param({"0.01", "0.12", "0.2"})
+        public double density;
+
+        int mines;
+        int center;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            mines = (int) (size * size * density);
+            center = size / 2;
+        }
+    }
+
+    /**
+     * Fresh board with mines placed around the centre for every call.
+     */
+    @State(Scope.Thread)
+    public static class Placed {
+        Board board;
+
+        @Setup(Level.Invocation)
+        public void setUp(Spec spec) {
+            board = Board.create(spec.size, spec.size, spec.mines, SEED, new Pair<>(spec.center, spec.center));
+        }
+    }
+
+    /**
+     * Board after the first open.
+     */
+    @State(Scope.Thread)
+    public static class Played {
+        Board board;
+
+        @Setup(Level.Trial)
+        public void setUp(Spec spec) {
+            board = Board.create(spec.size, spec.size, spec.mines, SEED);
+            board.open(spec.center, spec.center);
+        }
+    }
+
+    /**
+     * Board with mines placed and every cell closed.
+     */
+    @State(Scope.Thread)
+    public static class Closed {
+        Board board;
+
+        @Setup(Level.Trial)
+        public void setUp(Spec spec) {
+            board = Board.create(spec.size, spec.size, spec.mines, SEED, new Pair<>(spec.center, spec.center));
+        }
+    }
+
+    /**
+     * Board creation with mine placement on the first open.
+     */
+    @Benchmark
+    public int createAndFirstOpen(Spec spec) {
+        return Board.create(spec.size, spec.size, spec.mines, SEED).open(spec.center, spec.center);
+    }
+
+    /**
+     * Open on a board with mines already placed, cascades grow as the density goes down.
+     */
+    @Benchmark
+    public int openCascade(Spec spec, Placed placed) {
+        return placed.board.open(spec.center, spec.center);
+    }
+
+    @Benchmark
+    public boolean isWin(Played played) {
+        return played.board.isWin();
+    }
+
+    @Benchmark
+    public boolean toggleFlag(Closed closed) {
+        closed.board.toggleFlag(0, 0);
+        return closed.board.toggleFlag(0, 0);
+    }
+
+    @Benchmark
+    public String render(Played played) {
+        return played.board.toString();
+    }
+}
@@ -22,7 +22,7 @@ public class Cli {
         Board board = Board.create(cols, rows, minesCount);
         while (true) {
             out.println(board.toString());
-            if (board.isWin()) {
+            if (board.status() == Board.Status.WON) {
                 out.print("WIN");
                 return;
             }
@@ -31,23 +31,26 @@ public class Cli {
             out.println("Col: ");
             int col = in.nextInt();
 
-            if (board.isOpen(row, col)) {
-                out.println("Already opened");
-                continue;
-            }
-
             if (!board.hasIndexes(row, col)) {
                 out.println("AOOBE");
                 continue;
             }
 
-            out.println("Open(1) or Flag(2)?");
+            out.println("Open(1), Flag(2) or Chord(3)?");
             int action = in.nextInt();
 
-            if (action == 1) board.open(row, col);
-            else board.flag(row, col);
+            if (action == 3) {
+                if (board.chord(row, col) == 0) out.println("Nothing to chord");
+            } else if (board.isOpen(row, col)) {
+                out.println("Already opened");
+                continue;
+            } else if (action == 1) {
+                board.open(row, col);
+            } else {
+                board.flag(row, col);
+            }
 
-            if (action == 1 && board.isMine(row, col)) {
+            if (board.status() == Board.Status.LOST) {
                 out.println("LOOSE");
                 board.reveal(false);
                 out.print(board.toString());
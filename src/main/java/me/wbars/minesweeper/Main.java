@@ -1,13 +1,21 @@
 package me.wbars.minesweeper;
 
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.solver.BoardPool;
+import me.wbars.minesweeper.solver.NoGuessGenerator;
 import me.wbars.minesweeper.ui.BoardPanel;
 import me.wbars.minesweeper.ui.CustomGamePanel;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyEvent;
 import java.awt.event.WindowEvent;
+import java.util.function.Supplier;
 
 public class Main {
+    private static final BoardPool noGuessBoards = new BoardPool(new NoGuessGenerator(), 3);
+    private static JCheckBoxMenuItem noGuessing;
+
     public static void main(String[] args) {
         initSystemProperties();
         SwingUtilities.invokeLater(Main::createAndShowGUI);
@@ -28,7 +36,7 @@ public class Main {
         mainFrame.setLayout(new BorderLayout());
         mainFrame.setJMenuBar(createMenu(mainFrame));
         mainFrame.setContentPane(new BoardPanel(9, 9, 10));
-        mainFrame.setResizable(false);
+        mainFrame.setResizable(true);
         mainFrame.pack();
         mainFrame.setVisible(true);
         mainFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
@@ -49,24 +57,58 @@ public class Main {
         });
         game.add(customGame);
         game.addSeparator();
+        noGuessing = new JCheckBoxMenuItem("No guessing");
+        noGuessing.addItemListener(e -> {
+            if (noGuessing.isSelected()) prefillNoGuessBoards();
+        });
+        game.add(noGuessing);
+        game.addSeparator();
         JMenuItem exit = new JMenuItem("Exit");
         exit.addActionListener(e -> frame.dispatchEvent(new WindowEvent(frame, WindowEvent.WINDOW_CLOSING)));
         game.add(exit);
         menuBar.add(game);
+        JMenu view = new JMenu("View");
+        view.add(addZoomItem(frame, "Zoom in", KeyEvent.VK_EQUALS, -1));
+        view.add(addZoomItem(frame, "Zoom out", KeyEvent.VK_MINUS, 1));
+        menuBar.add(view);
         return menuBar;
     }
 
+    /**
+     * Starts pooling boards of the preset sizes, only once no guessing is on so that it doesn't take the cores
+     * otherwise.
+     */
+    private static void prefillNoGuessBoards() {
+        noGuessBoards.prefill(9, 9, 10);
+        noGuessBoards.prefill(16, 16, 40);
+        noGuessBoards.prefill(30, 16, 99);
+    }
+
     private static JMenuItem addDifficultyItem(JFrame frame, int rows, int cols, int mines, String name) {
         JMenuItem item = new JMenuItem(name);
         item.addActionListener(e -> newGame(frame, rows, cols, mines));
         return item;
     }
 
+    // getMenuShortcutKeyMaskEx() replacing it only came in Java 10, the build targets Java 8
+    @SuppressWarnings("deprecation")
+    private static JMenuItem addZoomItem(JFrame frame, String name, int key, int steps) {
+        JMenuItem item = new JMenuItem(name);
+        item.setAccelerator(KeyStroke.getKeyStroke(key, Toolkit.getDefaultToolkit().getMenuShortcutKeyMask()));
+        item.addActionListener(e -> ((BoardPanel) frame.getContentPane()).zoom(steps));
+        return item;
+    }
+
     private static void newGame(JFrame frame, int rows, int cols, int mines) {
-        frame.setContentPane(new BoardPanel(rows, cols, mines));
+        frame.setContentPane(new BoardPanel(rows, cols, mines, boards(rows, cols, mines)));
         frame.pack();
         frame.repaint();
     }
 
+    private static Supplier<Board> boards(int rows, int cols, int mines) {
+        if (noGuessing.isSelected()) return () -> noGuessBoards.take(cols, rows, mines);
+        return () -> Board.create(cols, rows, mines);
+    }
+
 
 }
@@ -0,0 +1,27 @@
+package me.wbars.minesweeper;
+
+import me.wbars.minesweeper.sim.Player;
+import me.wbars.minesweeper.sim.Simulation;
+
+import java.util.function.Supplier;
+
+/**
+ * Usage: cols rows mines games [seed] [solver|random] [threads]
+ */
+public class Simulate {
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: cols rows mines games [seed] [solver|random] [threads]");
+            System.exit(1);
+        }
+        int cols = Integer.parseInt(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        int mines = Integer.parseInt(args[2]);
+        long games = Long.parseLong(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        Supplier<Player> players = args.length > 5 && args[5].equals("random") ? Player::random : Player::solver;
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println(new Simulation(cols, rows, mines, players).run(games, seed, threads));
+    }
+}
@@ -2,120 +2,594 @@ package me.wbars.minesweeper.core;
 
 import me.wbars.minesweeper.util.Pair;
 
-import java.util.ArrayDeque;
-import java.util.List;
-import java.util.stream.Stream;
-
-import static java.util.Collections.shuffle;
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.IntStream.range;
-
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Minesweeper board.
+ * <p>
+ * A board is not thread-safe and has a single writer: one thread at a time makes moves and reads the board, and
+ * handing it over to another thread has to happen-before the next use there, as submitting a task to an executor
+ * or {@link java.util.concurrent.Future#get() getting} its result does. The listener is notified on the writer.
+ * <p>
+ * Other threads may still read cells with {@link #cellState(int, int)}, {@link #isMine(int, int)} and
+ * {@link #minesCount(int, int)} while a move is made, e.g. to show its progress. Every cell then reads as it was
+ * either before or after the move, but the move may be applied partly. Counters, {@link #status()} and
+ * {@link #changed()} are only meaningful on the writer.
+ */
 public class Board {
+    private static final int SNAPSHOT_MAGIC = 0x4D535753;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_CHUNK = 8192;
+
     private final int cols;
     private final int rows;
     private final int minesCount;
-    private final Cell[][] cells;
+    private final CellStorage cells;
+    private final MappedCellStorage mapped;
+    private final FloodFill floodFill;
+    private final int[] chorded = new int[8];
+    private long seed;
+    private MoveListener listener;
+    private History undo;
+    private History redo;
+    private boolean recording;
+    private int changedTop;
+    private int changedLeft;
+    private int changedBottom = -1;
+    private int changedRight = -1;
+    private boolean safeNeighbourhood;
+    private FillMode fillMode = FillMode.SEQUENTIAL;
     private boolean init;
-
+    private boolean exploded;
+    private int plantedMines;
+    private long minesHash;
+    private int openedSafeCells;
+    private int flaggedMines;
+    private int wrongFlags;
+
+    /**
+     * Every planted mine is flagged and there are no flags on safe cells.
+     */
     public boolean isWin() {
-        return allIndexes(null).stream()
-                .map(this::cell)
-                .filter(Cell::isMine)
-                .allMatch(p -> p.state() == Cell.State.FLAG);
+        return flaggedMines == plantedMines && wrongFlags == 0;
+    }
+
+    public Status status() {
+        if (exploded) return Status.LOST;
+        if (init && (isWin() || openedSafeCells == rows * cols - plantedMines)) return Status.WON;
+        return Status.PLAYING;
+    }
+
+    /**
+     * @return number of opened cells
+     */
+    public int open(int i, int j) {
+        checkIndexes(i, j);
+        if (cells.state(index(i, j)) == Cell.State.OPEN) throw new IllegalStateException();
+        unchanged();
+        dirty();
+        int opened = openCells(i, j);
+        persist();
+        if (listener != null) listener.opened(i, j, opened);
+        return opened;
     }
 
-    public void open(int i, int j) {
-        Cell cell = cells[i][j];
-        if (cell.state() == Cell.State.OPEN) throw new IllegalStateException();
-        if (!init) init(new Pair<>(i, j));
-        if (cell.isMine()) {
-            cell.state(Cell.State.OPEN);
-            return;
+    private int openCells(int i, int j) {
+        int index = index(i, j);
+        begin();
+        if (!init) init(i, j);
+        if (cells.isMine(index)) {
+            state(index, Cell.State.OPEN);
+            recording = false;
+            exploded = true;
+            return 1;
         }
-        fillNearClosedCells(cell);
+        if (cells.state(index) == Cell.State.FLAG) state(index, Cell.State.CLOSED);
+        int recorded = recording ? undo.size() : 0;
+        int opened = floodFill.fill(index, recording ? undo.cells() : null);
+        if (recording) undo.closedSince(recorded);
+        filled();
+        recording = false;
+        openedSafeCells += opened;
+        return opened;
     }
 
-    private void fillNearClosedCells(Cell e) {
-        ArrayDeque<Cell> bfs = new ArrayDeque<>();
-        bfs.addLast(e);
-        while (!bfs.isEmpty()) {
-            Cell cell = bfs.pollFirst();
-            if (cell.state() == Cell.State.OPEN) continue;
-            cell.state(Cell.State.OPEN);
+    /**
+     * Opens every closed neighbour of an open number surrounded by as many flags. Cascades from all of them run
+     * as one flood fill. A wrong flag around the number makes it open a mine.
+     *
+     * @return number of opened cells, 0 if the cell is not a number with enough flags around
+     */
+    public int chord(int i, int j) {
+        checkIndexes(i, j);
+        unchanged();
+        dirty();
+        int opened = chordCells(i, j);
+        persist();
+        if (listener != null) listener.chorded(i, j, opened);
+        return opened;
+    }
 
-            if (cell.minesCount() > 0) continue;
-            surroundingCells(cell.position()).stream()
-                    .filter(c -> c.state() == Cell.State.CLOSED)
-                    .forEach(bfs::addLast);
+    private int chordCells(int i, int j) {
+        int index = index(i, j);
+        if (cells.state(index) != Cell.State.OPEN || cells.isMine(index)) return 0;
+        int closed = 0;
+        int flags = 0;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                int neighbour = index(ni, nj);
+                if (cells.state(neighbour) == Cell.State.FLAG) flags++;
+                else if (cells.state(neighbour) == Cell.State.CLOSED) chorded[closed++] = neighbour;
+            }
+        }
+        if (closed == 0 || flags != cells.minesCount(index)) return 0;
+
+        begin();
+        int mines = 0;
+        int safe = 0;
+        for (int k = 0; k < closed; k++) {
+            if (cells.isMine(chorded[k])) {
+                state(chorded[k], Cell.State.OPEN);
+                exploded = true;
+                mines++;
+            } else {
+                chorded[safe++] = chorded[k];
+            }
         }
+        int recorded = recording ? undo.size() : 0;
+        int opened = floodFill.fill(chorded, safe, recording ? undo.cells() : null);
+        if (recording) undo.closedSince(recorded);
+        filled();
+        recording = false;
+        openedSafeCells += opened;
+        return mines + opened;
+    }
+
+    private void state(int index, Cell.State state) {
+        if (recording) undo.add(index, cells.state(index));
+        changed(index / cols, index % cols);
+        count(index, -1);
+        cells.state(index, state);
+        count(index, 1);
+    }
+
+    private void count(int index, int delta) {
+        Cell.State state = cells.state(index);
+        boolean mine = cells.isMine(index);
+        if (state == Cell.State.OPEN && !mine) openedSafeCells += delta;
+        else if (state == Cell.State.FLAG && mine) flaggedMines += delta;
+        else if (state == Cell.State.FLAG) wrongFlags += delta;
     }
 
-    private Board(int cols, int rows, int minesCount) {
-        if (minesCount > cols * rows) throw new IllegalArgumentException("Too many mines: " + minesCount);
+    private Board(int cols, int rows, int minesCount, long seed, CellStorage cells) {
         this.cols = cols;
         this.rows = rows;
         this.minesCount = minesCount;
-        cells = new Cell[rows][cols];
-        initCells(cols, rows);
+        this.seed = seed;
+        this.cells = cells;
+        mapped = cells instanceof MappedCellStorage ? (MappedCellStorage) cells : null;
+        floodFill = new FloodFill(cells, cols, rows);
     }
 
-    private void initRandomMines(Pair<Integer, Integer> exceptPos) {
-        getRandomIndexes(minesCount, exceptPos).forEach(this::plantMine);
+    private static void checkSize(int cols, int rows, int minesCount) {
+        if (cols < 0 || rows < 0) throw new IllegalArgumentException("Negative board size: " + cols + "x" + rows);
+        long area = (long) cols * rows;
+        if (area > Integer.MAX_VALUE) throw new IllegalArgumentException("Board is too large: " + cols + "x" + rows);
+        if (minesCount > area) throw new IllegalArgumentException("Too many mines: " + minesCount);
     }
 
-    private Cell cell(Pair<Integer, Integer> position) {
-        return cell(position.first(), position.second());
+    private void initRandomMines(int i, int j) {
+        new MinePlacer(cols, rows, seed).place(minesCount, i, j, safeNeighbourhood, cells::isMine, this::plantMine);
     }
 
-    private List<Cell> surroundingCells(Pair<Integer, Integer> pos) {
-        return Stream.of(
-                new Pair<>(pos.first() - 1, pos.second() - 1),
-                new Pair<>(pos.first() - 1, pos.second()),
-                new Pair<>(pos.first() - 1, pos.second() + 1),
-                new Pair<>(pos.first(), pos.second() + 1),
-                new Pair<>(pos.first() + 1, pos.second() + 1),
-                new Pair<>(pos.first() + 1, pos.second()),
-                new Pair<>(pos.first() + 1, pos.second() - 1),
-                new Pair<>(pos.first(), pos.second() - 1)
-        )
-                .filter(p -> hasIndexes(p.first(), p.second()))
-                .map(this::cell)
-                .collect(toList());
+    public static Board create(int cols, int rows, int minesCount) {
+        return create(cols, rows, minesCount, new Random().nextLong());
     }
 
-    private List<Pair<Integer, Integer>> getRandomIndexes(int size, Pair<Integer, Integer> exceptPos) {
-        List<Pair<Integer, Integer>> allIndexes = allIndexes(exceptPos);
-        if (size > allIndexes.size())
-            throw new IllegalStateException("Not enough free cells for plant: " + allIndexes.size());
-        shuffle(allIndexes);
-        return allIndexes.subList(0, size);
+    public static Board create(int cols, int rows, int minesCount, long seed) {
+        return create(cols, rows, minesCount, seed, StorageType.PACKED);
     }
 
-    private List<Pair<Integer, Integer>> allIndexes(Pair<Integer, Integer> exceptPos) {
-        return range(0, rows).boxed()
-                .flatMap(i -> range(0, cols).boxed().map(j -> new Pair<>(i, j)))
-                .filter(p -> !p.equals(exceptPos))
-                .collect(toList());
+    public static Board create(int cols, int rows, int minesCount, StorageType storageType) {
+        return create(cols, rows, minesCount, new Random().nextLong(), storageType);
     }
 
-    private void initCells(int cols, int rows) {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                cells[i][j] = new Cell(i, j);
+    public static Board create(int cols, int rows, int minesCount, long seed, StorageType storageType) {
+        checkSize(cols, rows, minesCount);
+        return new Board(cols, rows, minesCount, seed, storageType.create(cols, rows));
+    }
+
+    /**
+     * New board kept in a memory-mapped file instead of the heap, an existing file is replaced. Every move is
+     * written through to the file, which can be mapped again with {@link #map(Path)} at any point of the game.
+     */
+    public static Board map(Path file, int cols, int rows, int minesCount, long seed) throws IOException {
+        checkSize(cols, rows, minesCount);
+        return new Board(cols, rows, minesCount, seed, MappedCellStorage.create(file, cols, rows, minesCount, seed));
+    }
+
+    /**
+     * Continues the game kept in a file created by {@link #map(Path, int, int, int, long)}. If the process was
+     * killed in the middle of a move, the counters are rebuilt from the cells and the move stays partly made; a game
+     * with an open mine counts as lost then.
+     *
+     * @throws IOException if the file is not a board or it was killed while placing mines
+     */
+    public static Board map(Path file) throws IOException {
+        MappedCellStorage cells = MappedCellStorage.open(file);
+        Board board = new Board(cells.cols(), cells.rows(), cells.mines(), cells.seed(), cells);
+        int flags = cells.flags();
+        board.init = (flags & MappedCellStorage.INIT) != 0;
+        board.exploded = (flags & MappedCellStorage.EXPLODED) != 0;
+        board.safeNeighbourhood = (flags & MappedCellStorage.SAFE_NEIGHBOURHOOD) != 0;
+        board.minesHash = cells.minesHash();
+        board.plantedMines = cells.plantedMines();
+        board.openedSafeCells = cells.openedSafeCells();
+        board.flaggedMines = cells.flaggedMines();
+        board.wrongFlags = cells.wrongFlags();
+        if ((flags & MappedCellStorage.DIRTY) != 0) {
+            board.recount();
+            board.persist();
+        }
+        return board;
+    }
+
+    /**
+     * Rebuilds the counters and the neighbour counts from the cells, a kill may have cut a mine off from its
+     * neighbours.
+     */
+    private void recount() throws IOException {
+        plantedMines = 0;
+        minesHash = 0;
+        openedSafeCells = 0;
+        flaggedMines = 0;
+        wrongFlags = 0;
+        for (int index = 0; index < rows * cols; index++) {
+            if (cells.isMine(index)) {
+                plantedMines++;
+                minesHash ^= mineHash(index);
+                if (cells.state(index) == Cell.State.OPEN) exploded = true;
             }
+            mapped.minesCount(index, neighbourMines(index));
+            count(index, 1);
         }
+        if (init || plantedMines == 0) return;
+        if (plantedMines != minesCount) throw new IOException("Mines were placed only partly: " + plantedMines);
+        init = true;
     }
 
-    public static Board create(int cols, int rows, int minesCount) {
-        return new Board(cols, rows, minesCount);
+    /**
+     * Flushes a mapped board to disk, so the game survives a crash of the whole machine as well. Does nothing for
+     * boards on the heap.
+     */
+    public void force() {
+        cells.force();
+    }
+
+    /**
+     * Writes the game in a compact binary format, read back by {@link #load(InputStream)}. Big-endian:
+     * <pre>
+     * int   magic "MSWS"
+     * int   format version
+     * int   cols, rows, mines
+     * byte  flags: bit 0 - mines placed, bit 1 - exploded, bit 2 - safe neighbourhood
+     * long  seed
+     * int   planted mines, opened safe cells, flagged mines, wrong flags
+     * bytes mines, a bit per cell in row order, lowest bit first
+     * bytes states, two bits per cell in row order, lowest bits first: 0 - CLOSED, 1 - OPEN, 2 - FLAG
+     * </pre>
+     * Neighbour counts are not stored, they follow from the mines. The stream is not closed.
+     */
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(SNAPSHOT_MAGIC);
+        data.writeInt(SNAPSHOT_VERSION);
+        data.writeInt(cols);
+        data.writeInt(rows);
+        data.writeInt(minesCount);
+        data.writeByte((init ? 1 : 0) | (exploded ? 2 : 0) | (safeNeighbourhood ? 4 : 0));
+        data.writeLong(seed);
+        data.writeInt(plantedMines);
+        data.writeInt(openedSafeCells);
+        data.writeInt(flaggedMines);
+        data.writeInt(wrongFlags);
+
+        int area = cols * rows;
+        byte[] chunk = new byte[SNAPSHOT_CHUNK];
+        int size = 0;
+        for (int index = 0; index < area; index += 8) {
+            int bits = 0;
+            for (int b = 0; b < 8 && index + b < area; b++) {
+                if (cells.isMine(index + b)) bits |= 1 << b;
+            }
+            chunk[size++] = (byte) bits;
+            if (size == chunk.length) size = flush(data, chunk, size);
+        }
+        size = flush(data, chunk, size);
+        for (int index = 0; index < area; index += 4) {
+            int bits = 0;
+            for (int b = 0; b < 4 && index + b < area; b++) {
+                bits |= PackedCellStorage.encodeState(cells.state(index + b)) >>> PackedCellStorage.STATE_SHIFT << 2 * b;
+            }
+            chunk[size++] = (byte) bits;
+            if (size == chunk.length) size = flush(data, chunk, size);
+        }
+        flush(data, chunk, size);
+        data.flush();
+    }
+
+    private static int flush(DataOutputStream data, byte[] chunk, int size) throws IOException {
+        data.write(chunk, 0, size);
+        return 0;
+    }
+
+    /**
+     * Reads a game written by {@link #save(OutputStream)} into a board with packed storage. Reads exactly the
+     * snapshot, the stream is not closed.
+     */
+    public static Board load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a board snapshot");
+        int version = data.readInt();
+        if (version != SNAPSHOT_VERSION) throw new IOException("Unsupported board snapshot version: " + version);
+        int cols = data.readInt();
+        int rows = data.readInt();
+        int minesCount = data.readInt();
+        int flags = data.readByte();
+        long seed = data.readLong();
+        int plantedMines = data.readInt();
+        int openedSafeCells = data.readInt();
+        int flaggedMines = data.readInt();
+        int wrongFlags = data.readInt();
+        try {
+            checkSize(cols, rows, minesCount);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted board snapshot", e);
+        }
+
+        Board board = create(cols, rows, minesCount, seed);
+        int area = cols * rows;
+        byte[] chunk = new byte[SNAPSHOT_CHUNK];
+        for (int index = 0; index < area; ) {
+            int size = read(data, chunk, (area - index + 7) / 8);
+            for (int k = 0; k < size; k++, index += 8) {
+                for (int b = 0; b < 8 && index + b < area; b++) {
+                    if ((chunk[k] & 1 << b) != 0) board.plantMine(index + b);
+                }
+            }
+        }
+        for (int index = 0; index < area; ) {
+            int size = read(data, chunk, (area - index + 3) / 4);
+            for (int k = 0; k < size; k++, index += 4) {
+                for (int b = 0; b < 4 && index + b < area; b++) {
+                    int state = chunk[k] >>> 2 * b & 3;
+                    if (state == 3) throw new IOException("Corrupted board snapshot");
+                    if (state != 0) board.state(index + b, PackedCellStorage.decodeState(state << PackedCellStorage.STATE_SHIFT));
+                }
+            }
+        }
+
+        board.init = (flags & 1) != 0;
+        board.exploded = (flags & 2) != 0;
+        board.safeNeighbourhood = (flags & 4) != 0;
+        if (board.plantedMines != plantedMines || board.openedSafeCells != openedSafeCells
+                || board.flaggedMines != flaggedMines || board.wrongFlags != wrongFlags) {
+            throw new IOException("Corrupted board snapshot");
+        }
+        return board;
+    }
+
+    private static int read(DataInputStream data, byte[] chunk, int remaining) throws IOException {
+        int size = Math.min(chunk.length, remaining);
+        data.readFully(chunk, 0, size);
+        return size;
+    }
+
+    /**
+     * Keeps the cells changed by every move from now on, so moves can be undone and redone. Undo takes time
+     * proportional to what the move changed. Mines stay where they are when the first open is undone. Undo and
+     * redo that change the board are reported to the listener.
+     */
+    public void history(boolean enabled) {
+        undo = enabled ? new History() : null;
+        redo = enabled ? new History() : null;
+    }
+
+    /**
+     * @return false if there is no move to undo
+     */
+    public boolean undo() {
+        if (!restore(undo, redo)) return false;
+        if (listener != null) listener.undone();
+        return true;
+    }
+
+    /**
+     * @return false if there is no undone move to redo
+     */
+    public boolean redo() {
+        if (!restore(redo, undo)) return false;
+        if (listener != null) listener.redone();
+        return true;
+    }
+
+    private boolean restore(History from, History to) {
+        recording = false;
+        unchanged();
+        if (from == null || from.isEmpty()) return false;
+        dirty();
+        to.begin(exploded);
+        for (int k = from.size() - 1; k >= from.start(); k--) {
+            int index = from.cell(k);
+            to.add(index, cells.state(index));
+            state(index, from.state(k));
+        }
+        exploded = from.exploded();
+        from.pop();
+        persist();
+        return true;
+    }
+
+    /**
+     * Bounding box of the cells changed by the last move, undo, redo or reset, so views can repaint only that.
+     */
+    public Region changed() {
+        return Region.of(changedTop, changedLeft, changedBottom, changedRight);
+    }
+
+    private void unchanged() {
+        changedTop = rows;
+        changedLeft = cols;
+        changedBottom = -1;
+        changedRight = -1;
     }
 
-    private void init(Pair<Integer, Integer> exceptPos) {
+    private void changed(int i, int j) {
+        changedTop = Math.min(changedTop, i);
+        changedLeft = Math.min(changedLeft, j);
+        changedBottom = Math.max(changedBottom, i);
+        changedRight = Math.max(changedRight, j);
+    }
+
+    private void filled() {
+        if (floodFill.bottom < 0) return;
+        changed(floodFill.top, floodFill.left);
+        changed(floodFill.bottom, floodFill.right);
+    }
+
+    private void begin() {
+        if (undo == null) return;
+        redo.clear();
+        undo.begin(exploded);
+        recording = true;
+    }
+
+    private void dirty() {
+        if (mapped != null) mapped.dirty();
+    }
+
+    private void persist() {
+        if (mapped == null) return;
+        int flags = (init ? MappedCellStorage.INIT : 0)
+                | (exploded ? MappedCellStorage.EXPLODED : 0)
+                | (safeNeighbourhood ? MappedCellStorage.SAFE_NEIGHBOURHOOD : 0);
+        mapped.header(flags, seed, minesHash, plantedMines, openedSafeCells, flaggedMines, wrongFlags);
+    }
+
+    /**
+     * Board with mines already placed around the given first click, the same seed and first click always give
+     * the same layout.
+     */
+    public static Board create(int cols, int rows, int minesCount, long seed, Pair<Integer, Integer> firstClick) {
+        Board board = create(cols, rows, minesCount, seed);
+        board.init(firstClick.first(), firstClick.second());
+        return board;
+    }
+
+    /**
+     * Leaves the header of a mapped board to the move, which keeps it dirty till the cascade is opened.
+     */
+    private void init(int i, int j) {
         if (init) throw new IllegalStateException();
-        initRandomMines(exceptPos);
+        initRandomMines(i, j);
         init = true;
     }
 
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Starts a new game on the same board: all cells closed and empty, mines placed with the given seed on the
+     * next open. Reuses the storage, so it costs a pass over the cells and no allocation.
+     */
+    public void reset(long seed) {
+        dirty();
+        cells.clear();
+        unchanged();
+        changed(0, 0);
+        changed(rows - 1, cols - 1);
+        this.seed = seed;
+        init = false;
+        exploded = false;
+        plantedMines = 0;
+        minesHash = 0;
+        openedSafeCells = 0;
+        flaggedMines = 0;
+        wrongFlags = 0;
+        if (undo != null) {
+            undo.clear();
+            redo.clear();
+        }
+        persist();
+    }
+
+    /**
+     * @param listener listener for the moves made from now on, null to stop notifying
+     */
+    public void listener(MoveListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return listener notified of the moves, null if none
+     */
+    public MoveListener listener() {
+        return listener;
+    }
+
+    /**
+     * Hash of the board size and the set of planted mines, boards with equal layouts have equal fingerprints.
+     * Maintained as mines are planted, so it costs nothing to query.
+     */
+    public long fingerprint() {
+        return mix(minesHash ^ mix(((long) cols << 32) | rows));
+    }
+
+    /**
+     * MurmurHash3 finalizer.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Keeps the cells around the first opened cell free of mines as well, when the board has room for that.
+     */
+    public void safeNeighbourhood(boolean safeNeighbourhood) {
+        this.safeNeighbourhood = safeNeighbourhood;
+        persist();
+    }
+
+    public boolean safeNeighbourhood() {
+        return safeNeighbourhood;
+    }
+
+    /**
+     * Picks how cascades are opened. Both modes open the same cells.
+     */
+    public void fillMode(FillMode fillMode) {
+        this.fillMode = fillMode;
+        floodFill.parallel(fillMode == FillMode.PARALLEL
+                ? new ParallelFloodFill(cells, cols, rows, ForkJoinPool.commonPool()) : null);
+    }
+
+    public FillMode fillMode() {
+        return fillMode;
+    }
+
     public int cols() {
         return cols;
     }
@@ -128,68 +602,174 @@ public class Board {
         return minesCount;
     }
 
-    private Cell cell(int i, int j) {
-        return cells[i][j];
+    private int index(int i, int j) {
+        return i * cols + j;
     }
 
     public boolean hasIndexes(int i, int j) {
         return i >= 0 && i < rows && j >= 0 && j < cols;
     }
 
+    private void checkIndexes(int i, int j) {
+        if (!hasIndexes(i, j)) throw new IndexOutOfBoundsException("Cell " + i + ", " + j);
+    }
+
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(rows * (cols + 1));
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                sb.append(cells[i][j].toString());
+                sb.append(cellChar(index(i, j)));
             }
-            sb.append("\n");
+            sb.append('\n');
         }
         return sb.toString();
     }
 
+    private char cellChar(int index) {
+        Cell.State state = cells.state(index);
+        if (state == Cell.State.CLOSED) return '.';
+        if (state == Cell.State.FLAG) return 'F';
+        return cells.isMine(index) ? 'X' : (char) ('0' + cells.minesCount(index));
+    }
+
     void plantMine(Pair<Integer, Integer> pos) {
-        cell(pos.first(), pos.second()).plantMine();
-        surroundingCells(pos).forEach(Cell::incrementMinesCount);
+        checkIndexes(pos.first(), pos.second());
+        dirty();
+        plantMine(index(pos.first(), pos.second()));
+        persist();
+    }
+
+    private void plantMine(int index) {
+        if (cells.isMine(index)) return;
+        count(index, -1);
+        cells.plantMine(index);
+        count(index, 1);
+        plantedMines++;
+        minesHash ^= mineHash(index);
+
+        int i = index / cols;
+        int j = index % cols;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                if (ni != i || nj != j) cells.incrementMinesCount(index(ni, nj));
+            }
+        }
+    }
+
+    private int neighbourMines(int index) {
+        int i = index / cols;
+        int j = index % cols;
+        int mines = 0;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                if ((ni != i || nj != j) && cells.isMine(index(ni, nj))) mines++;
+            }
+        }
+        return mines;
+    }
+
+    private static long mineHash(int index) {
+        return mix(index + 0x9E3779B97F4A7C15L);
     }
 
     public void flag(int i, int j) {
-        cells[i][j].state(Cell.State.FLAG);
+        checkIndexes(i, j);
+        unchanged();
+        dirty();
+        begin();
+        state(index(i, j), Cell.State.FLAG);
+        recording = false;
+        persist();
+        if (listener != null) listener.flagged(i, j, true);
     }
 
     public boolean isOpen(int i, int j) {
-        return cells[i][j].state() == Cell.State.OPEN;
+        return cellState(i, j) == Cell.State.OPEN;
     }
 
     public boolean isMine(int i, int j) {
-        return cells[i][j].isMine();
+        checkIndexes(i, j);
+        return cells.isMine(index(i, j));
     }
 
     public void reveal(boolean showMines) {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (showMines || !isMine(i, j)) cells[i][j].state(Cell.State.OPEN);
-            }
+        unchanged();
+        dirty();
+        begin();
+        for (int index = 0; index < rows * cols; index++) {
+            if (showMines || !cells.isMine(index)) state(index, Cell.State.OPEN);
         }
+        recording = false;
+        persist();
+        if (listener != null) listener.revealed(showMines);
     }
 
     public Cell.State cellState(int i, int j) {
-        return cells[i][j].state();
+        checkIndexes(i, j);
+        return cells.state(index(i, j));
     }
 
     public int minesCount(int i, int j) {
-        return cells[i][j].minesCount();
+        checkIndexes(i, j);
+        return cells.minesCount(index(i, j));
     }
 
     public boolean toggleFlag(int i, int j) {
-        if (isFlag(i, j)) cells[i][j].state(Cell.State.CLOSED);
-        else if (cells[i][j].state() == Cell.State.CLOSED) cells[i][j].state(Cell.State.FLAG);
-        else throw new IllegalArgumentException();
-
-        return isFlag(i, j);
+        checkIndexes(i, j);
+        int index = index(i, j);
+        if (cells.state(index) == Cell.State.OPEN) throw new IllegalArgumentException();
+        unchanged();
+        dirty();
+        begin();
+        state(index, isFlag(i, j) ? Cell.State.CLOSED : Cell.State.FLAG);
+        recording = false;
+
+        boolean flag = isFlag(i, j);
+        persist();
+        if (listener != null) listener.flagged(i, j, flag);
+        return flag;
     }
 
     public boolean isFlag(int i, int j) {
-        return cells[i][j].state() == Cell.State.FLAG;
+        return cellState(i, j) == Cell.State.FLAG;
+    }
+
+    public enum Status {
+        PLAYING, WON, LOST
+    }
+
+    public enum FillMode {
+        /**
+         * Cascades are opened on the calling thread.
+         */
+        SEQUENTIAL,
+        /**
+         * Cascades going on past a few tens of thousands of cells are spread over the common fork/join pool.
+         */
+        PARALLEL
+    }
+
+    public enum StorageType {
+        /**
+         * State, mine bit and neighbour mines count packed into a single byte per cell.
+         */
+        PACKED {
+            @Override
+            CellStorage create(int cols, int rows) {
+                return new PackedCellStorage(cols, rows);
+            }
+        },
+        /**
+         * Separate {@link Cell} object per cell.
+         */
+        OBJECTS {
+            @Override
+            CellStorage create(int cols, int rows) {
+                return new ObjectCellStorage(cols, rows);
+            }
+        };
+
+        abstract CellStorage create(int cols, int rows);
     }
 }
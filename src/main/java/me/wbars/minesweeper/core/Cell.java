@@ -36,6 +36,15 @@ public class Cell {
         return minesCount;
     }
 
+    /**
+     * Makes the cell closed, empty and without neighbour mines.
+     */
+    void clear() {
+        state = State.CLOSED;
+        isMine = false;
+        minesCount = 0;
+    }
+
     public Pair<Integer, Integer> position() {
         return position;
     }
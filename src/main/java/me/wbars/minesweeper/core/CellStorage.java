@@ -0,0 +1,29 @@
+package me.wbars.minesweeper.core;
+
+/**
+ * Backing store for board cells, addressed by linear index {@code i * cols + j}.
+ */
+interface CellStorage {
+    Cell.State state(int index);
+
+    void state(int index, Cell.State state);
+
+    boolean isMine(int index);
+
+    void plantMine(int index);
+
+    int minesCount(int index);
+
+    void incrementMinesCount(int index);
+
+    /**
+     * Makes every cell closed, empty and without neighbour mines.
+     */
+    void clear();
+
+    /**
+     * Writes the cells to durable storage, if they are backed by any.
+     */
+    default void force() {
+    }
+}
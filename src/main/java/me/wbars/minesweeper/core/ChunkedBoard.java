@@ -0,0 +1,365 @@
+package me.wbars.minesweeper.core;
+
+import me.wbars.minesweeper.util.LongObjectMap;
+import me.wbars.minesweeper.util.LongQueue;
+
+import java.math.BigInteger;
+
+/**
+ * Board of practically any size, split into square tiles of {@link #TILE_SIZE} cells that are created on first
+ * touch. Offers the same queries and moves as {@link Board}, with coordinates up to {@code Integer.MAX_VALUE} and
+ * counts as longs.
+ * <p>
+ * Every tile gets a fixed share of the mines and places them with its own seed derived from the board seed, so a
+ * tile can be mined without looking at any other and the layout does not depend on the order tiles are touched.
+ * Mines are placed on the first open and only for tiles the game has reached and their neighbours, untouched
+ * tiles take no memory. If the share of the first opened tile fills it, one of its mines goes to the next tile in
+ * row-major order with room for it, so the first open is always safe.
+ */
+public class ChunkedBoard {
+    public static final int TILE_SIZE = 64;
+
+    private final int cols;
+    private final int rows;
+    private final long minesCount;
+    private final long seed;
+    private final int tileRows;
+    private final int tileCols;
+    private final LongObjectMap<Tile> tiles = new LongObjectMap<>();
+    private final LongQueue queue = new LongQueue();
+    private Tile lastTile;
+
+    private boolean init;
+    private int firstRow;
+    private int firstCol;
+    /**
+     * Key of the tile taking a mine that doesn't fit next to the first open, -1 for none.
+     */
+    private long spareTile = -1;
+    private boolean exploded;
+    private long openedSafeCells;
+    private long flaggedMines;
+    private long wrongFlags;
+
+    private ChunkedBoard(int cols, int rows, long minesCount, long seed) {
+        if (cols < 0 || rows < 0) throw new IllegalArgumentException("Negative board size: " + cols + "x" + rows);
+        if (minesCount > 0 && minesCount >= (long) cols * rows) {
+            throw new IllegalArgumentException("Too many mines: " + minesCount);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.minesCount = minesCount;
+        this.seed = seed;
+        tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+        tileCols = (cols + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    public static ChunkedBoard create(int cols, int rows, long minesCount, long seed) {
+        return new ChunkedBoard(cols, rows, minesCount, seed);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long minesCount() {
+        return minesCount;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Number of tiles in memory.
+     */
+    public int tiles() {
+        return tiles.size();
+    }
+
+    public boolean hasIndexes(int i, int j) {
+        return i >= 0 && i < rows && j >= 0 && j < cols;
+    }
+
+    public boolean isWin() {
+        return flaggedMines == minesCount && wrongFlags == 0;
+    }
+
+    public Board.Status status() {
+        if (exploded) return Board.Status.LOST;
+        if (init && (isWin() || openedSafeCells == (long) cols * rows - minesCount)) return Board.Status.WON;
+        return Board.Status.PLAYING;
+    }
+
+    /**
+     * @return number of opened cells
+     */
+    public long open(int i, int j) {
+        checkIndexes(i, j);
+        if (cellState(i, j) == Cell.State.OPEN) throw new IllegalStateException();
+        if (!init) {
+            init = true;
+            firstRow = i;
+            firstCol = j;
+            spareTile = spareTile();
+        }
+        Tile tile = ready(tile(i, j));
+        int local = tile.local(i, j);
+        if (tile.cells.isMine(local)) {
+            state(tile, local, Cell.State.OPEN);
+            exploded = true;
+            return 1;
+        }
+        if (tile.cells.state(local) == Cell.State.FLAG) state(tile, local, Cell.State.CLOSED);
+        long opened = fill(tile, i, j);
+        openedSafeCells += opened;
+        return opened;
+    }
+
+    private long fill(Tile start, int i, int j) {
+        queue.clear();
+        long opened = openCell(start, i, j);
+        while (!queue.isEmpty()) {
+            long position = queue.poll();
+            int ci = (int) (position >>> 32);
+            int cj = (int) position;
+            for (int ni = Math.max(0, ci - 1); ni <= Math.min(rows - 1, ci + 1); ni++) {
+                for (int nj = Math.max(0, cj - 1); nj <= Math.min(cols - 1, cj + 1); nj++) {
+                    Tile tile = ready(tile(ni, nj));
+                    if (tile.cells.state(tile.local(ni, nj)) == Cell.State.CLOSED) opened += openCell(tile, ni, nj);
+                }
+            }
+        }
+        return opened;
+    }
+
+    private int openCell(Tile tile, int i, int j) {
+        int local = tile.local(i, j);
+        tile.cells.state(local, Cell.State.OPEN);
+        if (tile.cells.minesCount(local) == 0) queue.add((long) i << 32 | j);
+        return 1;
+    }
+
+    public void flag(int i, int j) {
+        checkIndexes(i, j);
+        Tile tile = tile(i, j);
+        state(tile, tile.local(i, j), Cell.State.FLAG);
+    }
+
+    public boolean toggleFlag(int i, int j) {
+        checkIndexes(i, j);
+        Tile tile = tile(i, j);
+        int local = tile.local(i, j);
+        if (tile.cells.state(local) == Cell.State.FLAG) state(tile, local, Cell.State.CLOSED);
+        else if (tile.cells.state(local) == Cell.State.CLOSED) state(tile, local, Cell.State.FLAG);
+        else throw new IllegalArgumentException();
+
+        return isFlag(i, j);
+    }
+
+    /**
+     * Opens every cell of the tiles in memory, the rest of the board stays as it is.
+     */
+    public void reveal(boolean showMines) {
+        if (!init) return;
+        for (Tile tile : tiles.values()) {
+            ready(tile);
+            for (int local = 0; local < tile.height * tile.width; local++) {
+                if (showMines || !tile.cells.isMine(local)) state(tile, local, Cell.State.OPEN);
+            }
+        }
+    }
+
+    public Cell.State cellState(int i, int j) {
+        checkIndexes(i, j);
+        Tile tile = existing(i, j);
+        return tile == null ? Cell.State.CLOSED : tile.cells.state(tile.local(i, j));
+    }
+
+    public boolean isOpen(int i, int j) {
+        return cellState(i, j) == Cell.State.OPEN;
+    }
+
+    public boolean isFlag(int i, int j) {
+        return cellState(i, j) == Cell.State.FLAG;
+    }
+
+    /**
+     * Always false before the first open, mines are not placed yet.
+     */
+    public boolean isMine(int i, int j) {
+        checkIndexes(i, j);
+        if (!init) return false;
+        Tile tile = mined(tile(i, j));
+        return tile.cells.isMine(tile.local(i, j));
+    }
+
+    public int minesCount(int i, int j) {
+        checkIndexes(i, j);
+        if (!init) return 0;
+        Tile tile = ready(tile(i, j));
+        return tile.cells.minesCount(tile.local(i, j));
+    }
+
+    private void state(Tile tile, int local, Cell.State state) {
+        count(tile, local, -1);
+        tile.cells.state(local, state);
+        count(tile, local, 1);
+    }
+
+    /**
+     * Flags on tiles without mines yet count as wrong until the tile is mined.
+     */
+    private void count(Tile tile, int local, int delta) {
+        Cell.State state = tile.cells.state(local);
+        boolean mine = tile.cells.isMine(local);
+        if (state == Cell.State.OPEN && !mine) openedSafeCells += delta;
+        else if (state == Cell.State.FLAG && mine) flaggedMines += delta;
+        else if (state == Cell.State.FLAG) wrongFlags += delta;
+    }
+
+    /**
+     * Makes sure the tile and all tiles around it are mined, so neighbour counts in the tile are final.
+     */
+    private Tile ready(Tile tile) {
+        if (tile.ready || !init) return tile;
+        for (int ti = Math.max(0, tile.ti - 1); ti <= Math.min(tileRows - 1, tile.ti + 1); ti++) {
+            for (int tj = Math.max(0, tile.tj - 1); tj <= Math.min(tileCols - 1, tile.tj + 1); tj++) {
+                mined(tile(ti * TILE_SIZE, tj * TILE_SIZE));
+            }
+        }
+        tile.ready = true;
+        return tile;
+    }
+
+    private Tile mined(Tile tile) {
+        if (tile.mined || !init) return tile;
+        tile.mined = true;
+        int mines = tileMines(tile.ti, tile.tj);
+        if (spareTile >= 0 && tile.contains(firstRow, firstCol)) mines--;
+        if (key(tile.ti, tile.tj) == spareTile) mines++;
+        MinePlacer placer = new MinePlacer(tile.width, tile.height, Board.mix(seed + Board.mix(key(tile.ti, tile.tj))));
+        if (tile.contains(firstRow, firstCol)) {
+            placer.place(mines, firstRow - tile.top(), firstCol - tile.left(), false, tile.cells::isMine,
+                    local -> plantMine(tile, local));
+        } else {
+            placer.place(mines, tile.cells::isMine, local -> plantMine(tile, local));
+        }
+        return tile;
+    }
+
+    private void plantMine(Tile tile, int local) {
+        count(tile, local, -1);
+        tile.cells.plantMine(local);
+        count(tile, local, 1);
+
+        int i = tile.top() + local / tile.width;
+        int j = tile.left() + local % tile.width;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                if (ni == i && nj == j) continue;
+                Tile neighbour = tile(ni, nj);
+                neighbour.cells.incrementMinesCount(neighbour.local(ni, nj));
+            }
+        }
+    }
+
+    /**
+     * Mines of the whole board spread over tiles in row-major order proportionally to their area.
+     */
+    private int tileMines(int ti, int tj) {
+        long before = (long) ti * TILE_SIZE * cols + (long) height(ti) * tj * TILE_SIZE;
+        return (int) (minesBefore(before + (long) height(ti) * width(tj)) - minesBefore(before));
+    }
+
+    private long spareTile() {
+        int ti = firstRow / TILE_SIZE;
+        int tj = firstCol / TILE_SIZE;
+        if (tileMines(ti, tj) < height(ti) * width(tj)) return -1;
+        long tiles = (long) tileRows * tileCols;
+        for (long t = (long) ti * tileCols + tj + 1; ; t++) {
+            int si = (int) (t % tiles / tileCols);
+            int sj = (int) (t % tiles % tileCols);
+            if (tileMines(si, sj) < height(si) * width(sj)) return key(si, sj);
+        }
+    }
+
+    private int height(int ti) {
+        return Math.min(TILE_SIZE, rows - ti * TILE_SIZE);
+    }
+
+    private int width(int tj) {
+        return Math.min(TILE_SIZE, cols - tj * TILE_SIZE);
+    }
+
+    private long minesBefore(long cells) {
+        return BigInteger.valueOf(minesCount)
+                .multiply(BigInteger.valueOf(cells))
+                .divide(BigInteger.valueOf((long) cols * rows))
+                .longValue();
+    }
+
+    private Tile tile(int i, int j) {
+        Tile tile = existing(i, j);
+        if (tile != null) return tile;
+        int ti = i / TILE_SIZE;
+        int tj = j / TILE_SIZE;
+        tile = new Tile(ti, tj, height(ti), width(tj));
+        tiles.put(key(ti, tj), tile);
+        lastTile = tile;
+        return tile;
+    }
+
+    private Tile existing(int i, int j) {
+        if (lastTile != null && lastTile.contains(i, j)) return lastTile;
+        Tile tile = tiles.get(key(i / TILE_SIZE, j / TILE_SIZE));
+        if (tile != null) lastTile = tile;
+        return tile;
+    }
+
+    private void checkIndexes(int i, int j) {
+        if (!hasIndexes(i, j)) throw new IndexOutOfBoundsException("Cell " + i + ", " + j);
+    }
+
+    private static long key(int ti, int tj) {
+        return (long) ti << 32 | tj & 0xFFFFFFFFL;
+    }
+
+    private static class Tile {
+        final int ti;
+        final int tj;
+        final int height;
+        final int width;
+        final PackedCellStorage cells;
+        boolean mined;
+        boolean ready;
+
+        Tile(int ti, int tj, int height, int width) {
+            this.ti = ti;
+            this.tj = tj;
+            this.height = height;
+            this.width = width;
+            cells = new PackedCellStorage(width, height);
+        }
+
+        int top() {
+            return ti * TILE_SIZE;
+        }
+
+        int left() {
+            return tj * TILE_SIZE;
+        }
+
+        boolean contains(int i, int j) {
+            return i >= top() && i < top() + height && j >= left() && j < left() + width;
+        }
+
+        int local(int i, int j) {
+            return (i - top()) * width + j - left();
+        }
+    }
+}
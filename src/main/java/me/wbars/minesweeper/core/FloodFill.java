@@ -0,0 +1,113 @@
+package me.wbars.minesweeper.core;
+
+import me.wbars.minesweeper.util.IntList;
+import me.wbars.minesweeper.util.IntQueue;
+
+/**
+ * Opens a cell and cascades over every closed cell reachable through cells without neighbour mines.
+ * Works on linear indexes with a reusable queue, so a cascade allocates nothing per cell. Keeps the bounding box
+ * of the cells opened by the last fill.
+ * <p>
+ * With a {@link ParallelFloodFill} set, a cascade that goes on past {@link #PARALLEL_THRESHOLD} cells is handed
+ * over to it, so small fills don't pay for the pool.
+ */
+class FloodFill {
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final CellStorage cells;
+    private final int cols;
+    private final int rows;
+    private final IntQueue queue = new IntQueue();
+    private IntList opened;
+    private ParallelFloodFill parallel;
+    int top;
+    int left;
+    int bottom;
+    int right;
+
+    FloodFill(CellStorage cells, int cols, int rows) {
+        this.cells = cells;
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * @param parallel fill to hand big cascades over to, null to fill on the calling thread only
+     */
+    void parallel(ParallelFloodFill parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param opened list to append opened cells to, null if they are not needed
+     * @return number of opened cells
+     */
+    int fill(int start, IntList opened) {
+        start(opened);
+        int count = openCell(start, start / cols, start % cols) + drain();
+        this.opened = null;
+        return count;
+    }
+
+    /**
+     * Opens the closed cells among the first {@code size} starts and cascades from all of them in one pass, cells
+     * reached from several starts are opened once.
+     */
+    int fill(int[] starts, int size, IntList opened) {
+        start(opened);
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            if (cells.state(starts[k]) == Cell.State.CLOSED) count += openCell(starts[k], starts[k] / cols, starts[k] % cols);
+        }
+        count += drain();
+        this.opened = null;
+        return count;
+    }
+
+    private int drain() {
+        int count = 0;
+        while (!queue.isEmpty()) {
+            if (parallel != null && count >= PARALLEL_THRESHOLD) return count + drainParallel();
+            int index = queue.poll();
+            int i = index / cols;
+            int j = index % cols;
+            for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+                for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                    int neighbour = ni * cols + nj;
+                    if (cells.state(neighbour) == Cell.State.CLOSED) count += openCell(neighbour, ni, nj);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int drainParallel() {
+        int count = parallel.drain(queue, opened);
+        if (count == 0) return 0;
+        top = Math.min(top, parallel.top);
+        left = Math.min(left, parallel.left);
+        bottom = Math.max(bottom, parallel.bottom);
+        right = Math.max(right, parallel.right);
+        return count;
+    }
+
+    private void start(IntList opened) {
+        this.opened = opened;
+        queue.clear();
+        top = rows;
+        left = cols;
+        bottom = -1;
+        right = -1;
+    }
+
+    private int openCell(int index, int i, int j) {
+        cells.state(index, Cell.State.OPEN);
+        top = Math.min(top, i);
+        left = Math.min(left, j);
+        bottom = Math.max(bottom, i);
+        right = Math.max(right, j);
+        if (opened != null) opened.add(index);
+        if (cells.minesCount(index) == 0) queue.add(index);
+        return 1;
+    }
+}
@@ -0,0 +1,93 @@
+package me.wbars.minesweeper.core;
+
+import me.wbars.minesweeper.util.IntList;
+
+/**
+ * Stack of moves, every move kept as the cells it changed with the states they had before, plus whether the board
+ * had exploded before it. All moves share flat lists, so recording a move allocates nothing once the lists have
+ * grown to size.
+ * <p>
+ * Undoing a move restores the recorded states in reverse order while recording the replaced ones on the other
+ * stack, which leaves them in the order to redo it the same way.
+ */
+class History {
+    private static final Cell.State[] STATES = Cell.State.values();
+
+    private final IntList cells = new IntList();
+    private final IntList states = new IntList();
+    private final IntList starts = new IntList();
+    private final IntList exploded = new IntList();
+
+    /**
+     * Starts a new move, or reuses the last one if it changed nothing.
+     */
+    void begin(boolean exploded) {
+        if (!starts.isEmpty() && starts.get(starts.size() - 1) == cells.size()) {
+            this.exploded.set(this.exploded.size() - 1, exploded ? 1 : 0);
+            return;
+        }
+        starts.add(cells.size());
+        this.exploded.add(exploded ? 1 : 0);
+    }
+
+    void add(int index, Cell.State state) {
+        cells.add(index);
+        states.add(state.ordinal());
+    }
+
+    /**
+     * Cells added directly by a flood fill, their previous states are set by {@link #closedSince(int)}.
+     */
+    IntList cells() {
+        return cells;
+    }
+
+    /**
+     * Records every cell added to {@link #cells()} after {@code size} as previously closed.
+     */
+    void closedSince(int size) {
+        for (int k = size; k < cells.size(); k++) states.add(Cell.State.CLOSED.ordinal());
+    }
+
+    boolean isEmpty() {
+        return starts.isEmpty();
+    }
+
+    int start() {
+        return starts.get(starts.size() - 1);
+    }
+
+    int size() {
+        return cells.size();
+    }
+
+    int cell(int k) {
+        return cells.get(k);
+    }
+
+    Cell.State state(int k) {
+        return STATES[states.get(k)];
+    }
+
+    boolean exploded() {
+        return exploded.get(exploded.size() - 1) != 0;
+    }
+
+    /**
+     * Drops the last move.
+     */
+    void pop() {
+        int start = start();
+        cells.truncate(start);
+        states.truncate(start);
+        starts.truncate(starts.size() - 1);
+        exploded.truncate(exploded.size() - 1);
+    }
+
+    void clear() {
+        cells.clear();
+        states.clear();
+        starts.clear();
+        exploded.clear();
+    }
+}
@@ -0,0 +1,210 @@
+package me.wbars.minesweeper.core;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static me.wbars.minesweeper.core.PackedCellStorage.COUNT_MASK;
+import static me.wbars.minesweeper.core.PackedCellStorage.MINE_BIT;
+import static me.wbars.minesweeper.core.PackedCellStorage.STATE_MASK;
+import static me.wbars.minesweeper.core.PackedCellStorage.decodeState;
+import static me.wbars.minesweeper.core.PackedCellStorage.encodeState;
+
+/**
+ * Cells of a board in a memory-mapped file, off the Java heap. Every change goes straight to the mapping, so the
+ * file always holds the current game and a killed process leaves it ready to be mapped again. The header is
+ * marked dirty for the time of every move, counters of a file killed in the middle of one are rebuilt from the
+ * cells.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ * 0   int   magic "MSWP"
+ * 4   int   format version
+ * 8   int   cols
+ * 12  int   rows
+ * 16  int   mines
+ * 20  int   flags: bit 0 - mines placed, bit 1 - exploded, bit 2 - safe neighbourhood, bit 3 - move in progress
+ * 24  long  seed
+ * 32  long  fingerprint hash of planted mines
+ * 40  int   planted mines
+ * 44  int   opened safe cells
+ * 48  int   flagged mines
+ * 52  int   wrong flags
+ * 64  cells, one byte each in the {@link PackedCellStorage} layout, row by row
+ * </pre>
+ */
+class MappedCellStorage implements CellStorage {
+    static final int MAGIC = 0x4D535750;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    static final int INIT = 1;
+    static final int EXPLODED = 2;
+    static final int SAFE_NEIGHBOURHOOD = 4;
+    static final int DIRTY = 8;
+
+    private static final int COLS = 8;
+    private static final int ROWS = 12;
+    private static final int MINES = 16;
+    private static final int FLAGS = 20;
+    private static final int SEED = 24;
+    private static final int MINES_HASH = 32;
+    private static final int PLANTED_MINES = 40;
+    private static final int OPENED_SAFE_CELLS = 44;
+    private static final int FLAGGED_MINES = 48;
+    private static final int WRONG_FLAGS = 52;
+
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer cells;
+    private final int area;
+
+    private MappedCellStorage(MappedByteBuffer header, MappedByteBuffer cells, int area) {
+        this.header = header;
+        this.cells = cells;
+        this.area = area;
+    }
+
+    /**
+     * Creates the file, replacing an existing one, with all cells closed and empty.
+     */
+    static MappedCellStorage create(Path file, int cols, int rows, int mines, long seed) throws IOException {
+        int area = cols * rows;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedCellStorage storage = map(channel, area);
+            storage.header.putInt(0, MAGIC);
+            storage.header.putInt(4, VERSION);
+            storage.header.putInt(COLS, cols);
+            storage.header.putInt(ROWS, rows);
+            storage.header.putInt(MINES, mines);
+            storage.header.putLong(SEED, seed);
+            return storage;
+        }
+    }
+
+    static MappedCellStorage open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("Not a board file: " + file);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a board file: " + file);
+            if (header.getInt(4) != VERSION) throw new IOException("Unsupported board file version: " + header.getInt(4));
+            long area = (long) header.getInt(COLS) * header.getInt(ROWS);
+            if (channel.size() != HEADER_SIZE + area) throw new IOException("Truncated board file: " + file);
+            return map(channel, (int) area);
+        }
+    }
+
+    /**
+     * Mappings stay valid after the channel is closed.
+     */
+    private static MappedCellStorage map(FileChannel channel, int area) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        MappedByteBuffer cells = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, area);
+        return new MappedCellStorage(header, cells, area);
+    }
+
+    int cols() {
+        return header.getInt(COLS);
+    }
+
+    int rows() {
+        return header.getInt(ROWS);
+    }
+
+    int mines() {
+        return header.getInt(MINES);
+    }
+
+    int flags() {
+        return header.getInt(FLAGS);
+    }
+
+    long seed() {
+        return header.getLong(SEED);
+    }
+
+    long minesHash() {
+        return header.getLong(MINES_HASH);
+    }
+
+    int plantedMines() {
+        return header.getInt(PLANTED_MINES);
+    }
+
+    int openedSafeCells() {
+        return header.getInt(OPENED_SAFE_CELLS);
+    }
+
+    int flaggedMines() {
+        return header.getInt(FLAGGED_MINES);
+    }
+
+    int wrongFlags() {
+        return header.getInt(WRONG_FLAGS);
+    }
+
+    /**
+     * Marks the header stale till the next {@link #header(int, long, long, int, int, int, int) header} write.
+     */
+    void dirty() {
+        header.putInt(FLAGS, header.getInt(FLAGS) | DIRTY);
+    }
+
+    void header(int flags, long seed, long minesHash, int plantedMines, int openedSafeCells, int flaggedMines,
+                int wrongFlags) {
+        header.putInt(FLAGS, flags);
+        header.putLong(SEED, seed);
+        header.putLong(MINES_HASH, minesHash);
+        header.putInt(PLANTED_MINES, plantedMines);
+        header.putInt(OPENED_SAFE_CELLS, openedSafeCells);
+        header.putInt(FLAGGED_MINES, flaggedMines);
+        header.putInt(WRONG_FLAGS, wrongFlags);
+    }
+
+    @Override
+    public Cell.State state(int index) {
+        return decodeState(cells.get(index));
+    }
+
+    @Override
+    public void state(int index, Cell.State state) {
+        cells.put(index, (byte) (cells.get(index) & ~STATE_MASK | encodeState(state)));
+    }
+
+    @Override
+    public boolean isMine(int index) {
+        return (cells.get(index) & MINE_BIT) != 0;
+    }
+
+    @Override
+    public void plantMine(int index) {
+        cells.put(index, (byte) (cells.get(index) | MINE_BIT));
+    }
+
+    @Override
+    public int minesCount(int index) {
+        return cells.get(index) & COUNT_MASK;
+    }
+
+    @Override
+    public void incrementMinesCount(int index) {
+        cells.put(index, (byte) (cells.get(index) + 1));
+    }
+
+    void minesCount(int index, int count) {
+        cells.put(index, (byte) (cells.get(index) & ~COUNT_MASK | count));
+    }
+
+    @Override
+    public void clear() {
+        for (int index = 0; index < area; index++) cells.put(index, (byte) 0);
+    }
+
+    @Override
+    public void force() {
+        header.force();
+        cells.force();
+    }
+}
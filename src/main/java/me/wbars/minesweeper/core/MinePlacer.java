@@ -0,0 +1,76 @@
+package me.wbars.minesweeper.core;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Picks mine positions with Floyd's sampling algorithm: exactly {@code minesCount} random draws and no
+ * per-cell bookkeeping, so the cost grows with the number of mines rather than the board area.
+ * Already planted cells are recognised through {@code isMine}, the board itself serves as the sample set.
+ * <p>
+ * {@link Random} has its algorithm fixed by the specification, so a seed gives the same layout on every JVM.
+ */
+class MinePlacer {
+    private final int cols;
+    private final int rows;
+    private final Random random;
+
+    MinePlacer(int cols, int rows, long seed) {
+        this.cols = cols;
+        this.rows = rows;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Plants mines everywhere except cell (i, j) and, if {@code safeNeighbourhood} is set and there is enough
+     * room for it, the cells around (i, j).
+     */
+    void place(int minesCount, int i, int j, boolean safeNeighbourhood, IntPredicate isMine, IntConsumer plant) {
+        int[] excluded = safeNeighbourhood ? neighbourhood(i, j) : new int[]{i * cols + j};
+        if (minesCount > cols * rows - excluded.length) excluded = new int[]{i * cols + j};
+        place(minesCount, excluded, isMine, plant);
+    }
+
+    /**
+     * Plants mines anywhere.
+     */
+    void place(int minesCount, IntPredicate isMine, IntConsumer plant) {
+        place(minesCount, new int[0], isMine, plant);
+    }
+
+    private void place(int minesCount, int[] excluded, IntPredicate isMine, IntConsumer plant) {
+        int free = cols * rows - excluded.length;
+        if (minesCount > free) throw new IllegalStateException("Not enough free cells for plant: " + free);
+
+        for (int k = free - minesCount; k < free; k++) {
+            int index = toIndex(random.nextInt(k + 1), excluded);
+            if (isMine.test(index)) index = toIndex(k, excluded);
+            plant.accept(index);
+        }
+    }
+
+    private int[] neighbourhood(int i, int j) {
+        int[] result = new int[9];
+        int size = 0;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                result[size++] = ni * cols + nj;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Maps a position in the range of free cells to a board index skipping the excluded ones (sorted ascending).
+     */
+    private static int toIndex(int position, int[] excluded) {
+        int index = position;
+        for (int e : excluded) {
+            if (e > index) break;
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,37 @@
+package me.wbars.minesweeper.core;
+
+/**
+ * Gets notified after every move made on a {@link Board}.
+ */
+public interface MoveListener {
+    /**
+     * @param cells number of cells the move opened
+     */
+    void opened(int i, int j, int cells);
+
+    /**
+     * @param flag whether the cell is flagged after the move
+     */
+    void flagged(int i, int j, boolean flag);
+
+    /**
+     * @param cells number of cells the chord opened, 0 if it was not possible
+     */
+    default void chorded(int i, int j, int cells) {
+    }
+
+    default void revealed(boolean showMines) {
+    }
+
+    /**
+     * The last move was undone, see {@link Board#undo()}.
+     */
+    default void undone() {
+    }
+
+    /**
+     * The last undone move was made again, see {@link Board#redo()}.
+     */
+    default void redone() {
+    }
+}
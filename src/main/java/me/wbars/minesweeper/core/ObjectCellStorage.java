@@ -0,0 +1,57 @@
+package me.wbars.minesweeper.core;
+
+/**
+ * One {@link Cell} object per board cell.
+ */
+class ObjectCellStorage implements CellStorage {
+    private final int cols;
+    private final int rows;
+    private final Cell[] cells;
+
+    ObjectCellStorage(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        cells = new Cell[cols * rows];
+        clear();
+    }
+
+    @Override
+    public Cell.State state(int index) {
+        return cells[index].state();
+    }
+
+    @Override
+    public void state(int index, Cell.State state) {
+        cells[index].state(state);
+    }
+
+    @Override
+    public boolean isMine(int index) {
+        return cells[index].isMine();
+    }
+
+    @Override
+    public void plantMine(int index) {
+        cells[index].plantMine();
+    }
+
+    @Override
+    public int minesCount(int index) {
+        return cells[index].minesCount();
+    }
+
+    @Override
+    public void incrementMinesCount(int index) {
+        cells[index].incrementMinesCount();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (cells[i * cols + j] == null) cells[i * cols + j] = new Cell(i, j);
+                else cells[i * cols + j].clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package me.wbars.minesweeper.core;
+
+import java.util.Arrays;
+
+/**
+ * One byte per cell:
+ * <pre>
+ * bits 0-3  neighbour mines count (0..8)
+ * bit  4    mine
+ * bits 5-6  state: 0 - CLOSED, 1 - OPEN, 2 - FLAG
+ * </pre>
+ * A zeroed byte is a closed empty cell, so a fresh array needs no initialisation.
+ */
+class PackedCellStorage implements CellStorage {
+    static final int COUNT_MASK = 0x0F;
+    static final int MINE_BIT = 0x10;
+    static final int STATE_SHIFT = 5;
+    static final int STATE_MASK = 0x03 << STATE_SHIFT;
+
+    private static final Cell.State[] STATES = {Cell.State.CLOSED, Cell.State.OPEN, Cell.State.FLAG};
+
+    private final byte[] cells;
+
+    PackedCellStorage(int cols, int rows) {
+        cells = new byte[cols * rows];
+    }
+
+    static Cell.State decodeState(int cell) {
+        return STATES[(cell & STATE_MASK) >>> STATE_SHIFT];
+    }
+
+    static int encodeState(Cell.State state) {
+        switch (state) {
+            case CLOSED:
+                return 0;
+            case OPEN:
+                return 1 << STATE_SHIFT;
+            case FLAG:
+                return 2 << STATE_SHIFT;
+            default:
+                throw new IllegalArgumentException(String.valueOf(state));
+        }
+    }
+
+    @Override
+    public Cell.State state(int index) {
+        return decodeState(cells[index]);
+    }
+
+    @Override
+    public void state(int index, Cell.State state) {
+        cells[index] = (byte) (cells[index] & ~STATE_MASK | encodeState(state));
+    }
+
+    @Override
+    public boolean isMine(int index) {
+        return (cells[index] & MINE_BIT) != 0;
+    }
+
+    @Override
+    public void plantMine(int index) {
+        cells[index] |= MINE_BIT;
+    }
+
+    @Override
+    public int minesCount(int index) {
+        return cells[index] & COUNT_MASK;
+    }
+
+    @Override
+    public void incrementMinesCount(int index) {
+        cells[index]++;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+}
@@ -0,0 +1,139 @@
+package me.wbars.minesweeper.core;
+
+import me.wbars.minesweeper.util.IntList;
+import me.wbars.minesweeper.util.IntQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Rest of a big cascade spread over a fork/join pool. Every task drains a queue of its own and hands half of it
+ * over to a new task while the pool runs short of work. A closed cell is opened by the task that wins its claim in
+ * an atomic bitset, so no cell is opened twice and every cell is written by one thread. Opens the same cells as
+ * a sequential fill, in another order.
+ */
+class ParallelFloodFill {
+    /**
+     * Smallest queue worth splitting.
+     */
+    private static final int SPLIT_SIZE = 256;
+
+    private final CellStorage cells;
+    private final int cols;
+    private final int rows;
+    private final ForkJoinPool pool;
+    private AtomicIntegerArray claims;
+    int top;
+    int left;
+    int bottom;
+    int right;
+
+    ParallelFloodFill(CellStorage cells, int cols, int rows, ForkJoinPool pool) {
+        this.cells = cells;
+        this.cols = cols;
+        this.rows = rows;
+        this.pool = pool;
+    }
+
+    /**
+     * Cascades from open cells without neighbour mines taken from the queue, keeping the bounding box of the
+     * cells it opens.
+     *
+     * @param opened list to append opened cells to, null if they are not needed
+     * @return number of opened cells
+     */
+    int drain(IntQueue queue, IntList opened) {
+        if (claims == null) claims = new AtomicIntegerArray((int) (((long) cols * rows + 31) >>> 5));
+        IntQueue own = new IntQueue(queue.size());
+        while (!queue.isEmpty()) own.add(queue.poll());
+        Expand root = new Expand(own, opened != null);
+        pool.invoke(root);
+        top = root.top;
+        left = root.left;
+        bottom = root.bottom;
+        right = root.right;
+        if (opened != null) opened.addAll(root.opened);
+        if (bottom >= 0) {
+            for (int word = top * cols >>> 5; word <= (bottom * cols + cols - 1) >>> 5; word++) claims.set(word, 0);
+        }
+        return root.count;
+    }
+
+    private boolean claim(int index) {
+        int word = index >>> 5;
+        int bit = 1 << (index & 31);
+        while (true) {
+            int claimed = claims.get(word);
+            if ((claimed & bit) != 0) return false;
+            if (claims.compareAndSet(word, claimed, claimed | bit)) return true;
+        }
+    }
+
+    private class Expand extends RecursiveAction {
+        private final IntQueue queue;
+        private final IntList opened;
+        private int count;
+        private int top = rows;
+        private int left = cols;
+        private int bottom = -1;
+        private int right = -1;
+
+        Expand(IntQueue queue, boolean recording) {
+            this.queue = queue;
+            this.opened = recording ? new IntList() : null;
+        }
+
+        @Override
+        protected void compute() {
+            List<Expand> forked = null;
+            while (!queue.isEmpty()) {
+                if (queue.size() >= SPLIT_SIZE && getSurplusQueuedTaskCount() == 0) {
+                    if (forked == null) forked = new ArrayList<>();
+                    forked.add(split());
+                }
+                int index = queue.poll();
+                int i = index / cols;
+                int j = index % cols;
+                for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+                    for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                        int neighbour = ni * cols + nj;
+                        if (cells.state(neighbour) == Cell.State.CLOSED && claim(neighbour)) open(neighbour, ni, nj);
+                    }
+                }
+            }
+            if (forked == null) return;
+            for (int k = forked.size() - 1; k >= 0; k--) {
+                Expand task = forked.get(k);
+                task.join();
+                count += task.count;
+                top = Math.min(top, task.top);
+                left = Math.min(left, task.left);
+                bottom = Math.max(bottom, task.bottom);
+                right = Math.max(right, task.right);
+                if (opened != null) opened.addAll(task.opened);
+            }
+        }
+
+        private Expand split() {
+            IntQueue half = new IntQueue(queue.size() / 2);
+            for (int k = queue.size() / 2; k > 0; k--) half.add(queue.poll());
+            Expand task = new Expand(half, opened != null);
+            task.fork();
+            return task;
+        }
+
+        private void open(int index, int i, int j) {
+            cells.state(index, Cell.State.OPEN);
+            count++;
+            top = Math.min(top, i);
+            left = Math.min(left, j);
+            bottom = Math.max(bottom, i);
+            right = Math.max(right, j);
+            if (opened != null) opened.add(index);
+            if (cells.minesCount(index) == 0) queue.add(index);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package me.wbars.minesweeper.core;
+
+/**
+ * Rectangle of cells, bounds inclusive.
+ */
+public class Region {
+    private static final Region EMPTY = new Region(0, 0, -1, -1);
+
+    private final int top;
+    private final int left;
+    private final int bottom;
+    private final int right;
+
+    private Region(int top, int left, int bottom, int right) {
+        this.top = top;
+        this.left = left;
+        this.bottom = bottom;
+        this.right = right;
+    }
+
+    static Region of(int top, int left, int bottom, int right) {
+        return top > bottom || left > right ? EMPTY : new Region(top, left, bottom, right);
+    }
+
+    public int top() {
+        return top;
+    }
+
+    public int left() {
+        return left;
+    }
+
+    public int bottom() {
+        return bottom;
+    }
+
+    public int right() {
+        return right;
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    public boolean contains(int i, int j) {
+        return i >= top && i <= bottom && j >= left && j <= right;
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "[]" : "[" + top + ", " + left + " - " + bottom + ", " + right + "]";
+    }
+}
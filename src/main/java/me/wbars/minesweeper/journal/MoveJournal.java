@@ -0,0 +1,122 @@
+package me.wbars.minesweeper.journal;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.core.MoveListener;
+
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Append-only log of the moves made on a board, enough to rebuild every position with {@link Replay}.
+ * <p>
+ * Big-endian, a header followed by a record per move:
+ * <pre>
+ * header  int magic "MSWJ", int version, int cols, int rows, int mines, long seed, byte safe neighbourhood
+ * record  long time in milliseconds since the epoch, int cell index {@code i * cols + j} (-1 for reveal, undo
+ *         and redo), byte move: 0 - open, 1 - flag, 2 - reveal, 3 - chord, 4 - undo, 5 - redo,
+ *         byte argument: flag state or whether mines are shown, 2 bytes reserved
+ * </pre>
+ * Records are {@value #RECORD_SIZE} bytes, so move N starts at a known offset. Mines are not logged, they follow
+ * from the seed and the first open.
+ */
+public class MoveJournal implements MoveListener, Flushable {
+    static final int MAGIC = 0x4D53574A;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 29;
+    static final int RECORD_SIZE = 16;
+
+    static final byte OPEN = 0;
+    static final byte FLAG = 1;
+    static final byte REVEAL = 2;
+    static final byte CHORD = 3;
+    static final byte UNDO = 4;
+    static final byte REDO = 5;
+
+    private final DataOutputStream out;
+    private final int cols;
+    private final MoveListener next;
+
+    private MoveJournal(DataOutputStream out, int cols, MoveListener next) {
+        this.out = out;
+        this.cols = cols;
+        this.next = next;
+    }
+
+    /**
+     * Writes the header and starts logging the moves made on the board, which has to be fresh: nothing opened
+     * yet. Becomes the listener of the board and passes every move on to the listener it replaces, after
+     * logging it. Errors of the stream are thrown as {@link UncheckedIOException}
+     * from the move that hit them.
+     *
+     * @param out stream to append to, better buffered
+     */
+    public static MoveJournal record(Board board, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(board.cols());
+        data.writeInt(board.rows());
+        data.writeInt(board.minesCount());
+        data.writeLong(board.seed());
+        data.writeByte(board.safeNeighbourhood() ? 1 : 0);
+        MoveJournal journal = new MoveJournal(data, board.cols(), board.listener());
+        board.listener(journal);
+        return journal;
+    }
+
+    @Override
+    public void opened(int i, int j, int cells) {
+        write(i * cols + j, OPEN, false);
+        if (next != null) next.opened(i, j, cells);
+    }
+
+    @Override
+    public void flagged(int i, int j, boolean flag) {
+        write(i * cols + j, FLAG, flag);
+        if (next != null) next.flagged(i, j, flag);
+    }
+
+    @Override
+    public void chorded(int i, int j, int cells) {
+        write(i * cols + j, CHORD, false);
+        if (next != null) next.chorded(i, j, cells);
+    }
+
+    @Override
+    public void revealed(boolean showMines) {
+        write(-1, REVEAL, showMines);
+        if (next != null) next.revealed(showMines);
+    }
+
+    @Override
+    public void undone() {
+        write(-1, UNDO, false);
+        if (next != null) next.undone();
+    }
+
+    @Override
+    public void redone() {
+        write(-1, REDO, false);
+        if (next != null) next.redone();
+    }
+
+    private void write(int index, byte move, boolean argument) {
+        try {
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(index);
+            out.writeByte(move);
+            out.writeByte(argument ? 1 : 0);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
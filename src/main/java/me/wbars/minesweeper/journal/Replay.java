@@ -0,0 +1,200 @@
+package me.wbars.minesweeper.journal;
+
+import me.wbars.minesweeper.core.Board;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Rebuilds positions of a game from its {@link MoveJournal}.
+ * <p>
+ * Records are kept as read and decoded on access. Positions reached while replaying are snapshotted every
+ * {@code snapshotInterval} moves, so jumping around a long game replays at most that many moves from the closest
+ * snapshot. Undo reaches back past any snapshot, so a game with undone moves is replayed from the start with
+ * {@link Board#history(boolean) history} kept.
+ */
+public class Replay {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+
+    private final int cols;
+    private final int rows;
+    private final int minesCount;
+    private final long seed;
+    private final boolean safeNeighbourhood;
+    private final ByteBuffer records;
+    private final int moves;
+    private final boolean history;
+    private final int snapshotInterval;
+    private final byte[][] snapshots;
+
+    private Replay(int cols, int rows, int minesCount, long seed, boolean safeNeighbourhood, ByteBuffer records,
+                   int snapshotInterval) {
+        this.cols = cols;
+        this.rows = rows;
+        this.minesCount = minesCount;
+        this.seed = seed;
+        this.safeNeighbourhood = safeNeighbourhood;
+        this.records = records;
+        this.moves = records.limit() / MoveJournal.RECORD_SIZE;
+        this.history = hasUndo(records, moves);
+        this.snapshotInterval = snapshotInterval;
+        this.snapshots = new byte[moves / snapshotInterval + 1][];
+    }
+
+    public static Replay read(InputStream in) throws IOException {
+        return read(in, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Reads the journal to the end. A record cut short, as left by a crash in the middle of a write, is dropped.
+     */
+    public static Replay read(InputStream in, int snapshotInterval) throws IOException {
+        if (snapshotInterval <= 0) throw new IllegalArgumentException("Snapshot interval: " + snapshotInterval);
+        DataInputStream data = new DataInputStream(in);
+        byte[] bytes = new byte[MoveJournal.HEADER_SIZE];
+        try {
+            data.readFully(bytes);
+        } catch (EOFException e) {
+            throw new IOException("Not a move journal", e);
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        if (header.getInt() != MoveJournal.MAGIC) throw new IOException("Not a move journal");
+        int version = header.getInt();
+        if (version != MoveJournal.VERSION) throw new IOException("Unsupported move journal version: " + version);
+        int cols = header.getInt();
+        int rows = header.getInt();
+        int minesCount = header.getInt();
+        long seed = header.getLong();
+        boolean safeNeighbourhood = header.get() != 0;
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        byte[] chunk = new byte[MoveJournal.RECORD_SIZE * 512];
+        int read;
+        while ((read = data.read(chunk)) > 0) records.write(chunk, 0, read);
+        int size = records.size() - records.size() % MoveJournal.RECORD_SIZE;
+        return new Replay(cols, rows, minesCount, seed, safeNeighbourhood,
+                ByteBuffer.wrap(records.toByteArray(), 0, size).slice(), snapshotInterval);
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int minesCount() {
+        return minesCount;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public int moves() {
+        return moves;
+    }
+
+    /**
+     * @return when the move was made, in milliseconds since the epoch
+     */
+    public long time(int move) {
+        return records.getLong(offset(move));
+    }
+
+    /**
+     * Position of the last move.
+     */
+    public Board play() {
+        return board(moves);
+    }
+
+    /**
+     * @return new board in the position after the given number of moves
+     */
+    public Board board(int moves) {
+        if (moves < 0 || moves > this.moves) throw new IndexOutOfBoundsException("Move " + moves + " of " + this.moves);
+        int snapshot = history ? 0 : moves / snapshotInterval;
+        while (snapshot > 0 && snapshots[snapshot] == null) snapshot--;
+        Board board = snapshot == 0 ? fresh() : load(snapshots[snapshot]);
+        for (int move = snapshot * snapshotInterval; move < moves; move++) {
+            apply(board, move);
+            if (!history && (move + 1) % snapshotInterval == 0 && snapshots[(move + 1) / snapshotInterval] == null) {
+                snapshots[(move + 1) / snapshotInterval] = save(board);
+            }
+        }
+        return board;
+    }
+
+    private Board fresh() {
+        Board board = Board.create(cols, rows, minesCount, seed);
+        board.safeNeighbourhood(safeNeighbourhood);
+        board.history(history);
+        return board;
+    }
+
+    private static boolean hasUndo(ByteBuffer records, int moves) {
+        for (int move = 0; move < moves; move++) {
+            if (records.get(offset(move) + 12) == MoveJournal.UNDO) return true;
+        }
+        return false;
+    }
+
+    private void apply(Board board, int move) {
+        int offset = offset(move);
+        int index = records.getInt(offset + 8);
+        boolean argument = records.get(offset + 13) != 0;
+        switch (records.get(offset + 12)) {
+            case MoveJournal.OPEN:
+                board.open(index / cols, index % cols);
+                break;
+            case MoveJournal.FLAG:
+                if (argument) board.flag(index / cols, index % cols);
+                else if (board.isFlag(index / cols, index % cols)) board.toggleFlag(index / cols, index % cols);
+                break;
+            case MoveJournal.CHORD:
+                board.chord(index / cols, index % cols);
+                break;
+            case MoveJournal.REVEAL:
+                board.reveal(argument);
+                break;
+            case MoveJournal.UNDO:
+                if (!board.undo()) throw new IllegalStateException("Nothing to undo at " + move);
+                break;
+            case MoveJournal.REDO:
+                if (!board.redo()) throw new IllegalStateException("Nothing to redo at " + move);
+                break;
+            default:
+                throw new IllegalStateException("Unknown move " + records.get(offset + 12) + " at " + move);
+        }
+    }
+
+    private static int offset(int move) {
+        return move * MoveJournal.RECORD_SIZE;
+    }
+
+    private static byte[] save(Board board) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            board.save(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Board load(byte[] snapshot) {
+        try {
+            return Board.load(new ByteArrayInputStream(snapshot));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package me.wbars.minesweeper.sim;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.solver.Solver;
+
+import java.util.Random;
+
+/**
+ * Strategy for a {@link Simulation}. Every worker thread gets a player of its own, so a player may keep state
+ * between games, e.g. scratch arrays reused from game to game.
+ */
+public interface Player {
+    /**
+     * Plays a fresh game until it is over or the player gives up.
+     *
+     * @param random source of randomness seeded for this game
+     */
+    void play(Board board, Random random);
+
+    /**
+     * Plays with {@link Solver}, guessing when it has to. The solver is kept and {@link Solver#reset() reset} for
+     * every game on the same board.
+     */
+    static Player solver() {
+        return new Player() {
+            private Board board;
+            private Solver solver;
+
+            @Override
+            public void play(Board board, Random random) {
+                if (board != this.board) {
+                    this.board = board;
+                    solver = new Solver(board);
+                } else {
+                    solver.reset();
+                }
+                solver.solve();
+            }
+        };
+    }
+
+    /**
+     * Opens random closed cells.
+     */
+    static Player random() {
+        return (board, random) -> {
+            while (board.status() == Board.Status.PLAYING) {
+                int i = random.nextInt(board.rows());
+                int j = random.nextInt(board.cols());
+                if (!board.isOpen(i, j)) board.open(i, j);
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package me.wbars.minesweeper.sim;
+
+import me.wbars.minesweeper.core.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games headless in parallel. Every worker owns one board, one random and one player and resets them
+ * between games, so with a player that reuses its state a game allocates nothing on its own. Game n always gets the
+ * same layout for a given seed, whatever the number of workers.
+ */
+public class Simulation {
+    private static final int BATCH = 64;
+
+    private final int cols;
+    private final int rows;
+    private final int minesCount;
+    private final Supplier<Player> players;
+
+    /**
+     * @param players source of a player for every worker, e.g. {@code Player::solver}
+     */
+    public Simulation(int cols, int rows, int minesCount, Supplier<Player> players) {
+        this.cols = cols;
+        this.rows = rows;
+        this.minesCount = minesCount;
+        this.players = players;
+    }
+
+    public SimulationReport run(long games, long seed) {
+        return run(games, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SimulationReport run(long games, long seed, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            AtomicLong next = new AtomicLong();
+            List<Future<Statistics>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) workers.add(executor.submit(() -> play(games, seed, next)));
+
+            Statistics total = new Statistics();
+            for (Future<Statistics> worker : workers) total.add(worker.get());
+            return new SimulationReport(total, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Statistics play(long games, long seed, AtomicLong next) {
+        Statistics statistics = new Statistics();
+        Board board = Board.create(cols, rows, minesCount, seed);
+        board.listener(statistics);
+        Player player = players.get();
+        Random random = new Random();
+        for (long from = next.getAndAdd(BATCH); from < games; from = next.getAndAdd(BATCH)) {
+            for (long game = from; game < Math.min(games, from + BATCH); game++) {
+                long gameSeed = seed + game * 0x9E3779B97F4A7C15L;
+                board.reset(gameSeed);
+                random.setSeed(gameSeed);
+                player.play(board, random);
+                statistics.gameOver(board.status());
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,64 @@
+package me.wbars.minesweeper.sim;
+
+/**
+ * Outcome of a {@link Simulation} run: counters of all workers merged, and the wall time it took.
+ */
+public class SimulationReport {
+    private final Statistics statistics;
+    private final long elapsedNanos;
+
+    SimulationReport(Statistics statistics, long elapsedNanos) {
+        this.statistics = statistics;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long games() {
+        return statistics.games;
+    }
+
+    public long wins() {
+        return statistics.wins;
+    }
+
+    public long losses() {
+        return statistics.losses;
+    }
+
+    public double winRate() {
+        return ratio(statistics.wins, statistics.games);
+    }
+
+    public double meanMoves() {
+        return ratio(statistics.moves, statistics.games);
+    }
+
+    /**
+     * Mean number of cells opened by a single open.
+     */
+    public double meanCascade() {
+        return ratio(statistics.openedCells, statistics.opens);
+    }
+
+    public int maxCascade() {
+        return statistics.maxCascade;
+    }
+
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : statistics.games * 1e9 / elapsedNanos;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private static double ratio(long value, long total) {
+        return total == 0 ? 0 : (double) value / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games: %d, wins: %d (%.2f%%), losses: %d, mean moves: %.2f, "
+                        + "mean cascade: %.2f, max cascade: %d, games/s: %.0f",
+                games(), wins(), winRate() * 100, losses(), meanMoves(), meanCascade(), maxCascade(), gamesPerSecond());
+    }
+}
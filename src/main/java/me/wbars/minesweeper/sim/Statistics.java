@@ -0,0 +1,51 @@
+package me.wbars.minesweeper.sim;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.core.MoveListener;
+
+/**
+ * Counters of one worker, merged into a report when all games are played.
+ */
+class Statistics implements MoveListener {
+    long games;
+    long wins;
+    long losses;
+    long moves;
+    long opens;
+    long openedCells;
+    int maxCascade;
+
+    @Override
+    public void opened(int i, int j, int cells) {
+        moves++;
+        opens++;
+        openedCells += cells;
+        maxCascade = Math.max(maxCascade, cells);
+    }
+
+    @Override
+    public void chorded(int i, int j, int cells) {
+        opened(i, j, cells);
+    }
+
+    @Override
+    public void flagged(int i, int j, boolean flag) {
+        moves++;
+    }
+
+    void gameOver(Board.Status status) {
+        games++;
+        if (status == Board.Status.WON) wins++;
+        else if (status == Board.Status.LOST) losses++;
+    }
+
+    void add(Statistics other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        moves += other.moves;
+        opens += other.opens;
+        openedCells += other.openedCells;
+        maxCascade = Math.max(maxCascade, other.maxCascade);
+    }
+}
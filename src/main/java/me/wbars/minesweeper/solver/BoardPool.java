@@ -0,0 +1,98 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a few pre-generated boards without guessing per prefilled board size, refilled in background, so a new game
+ * can start right away. Other sizes are generated on demand and not pooled.
+ */
+public class BoardPool {
+    private final NoGuessGenerator generator;
+    private final int capacity;
+    private final Map<Spec, BlockingQueue<Board>> boards = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+    private final ExecutorService refill = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "board-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BoardPool(NoGuessGenerator generator, int capacity) {
+        this.generator = generator;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Starts generating boards of the given size in background.
+     */
+    public void prefill(int cols, int rows, int minesCount) {
+        Spec spec = new Spec(cols, rows, minesCount);
+        refill(queue(spec), spec);
+    }
+
+    /**
+     * Pooled board if there is one, otherwise a board generated on the calling thread. Only sizes passed to
+     * {@link #prefill(int, int, int)} are refilled.
+     */
+    public Board take(int cols, int rows, int minesCount) {
+        Spec spec = new Spec(cols, rows, minesCount);
+        BlockingQueue<Board> queue = boards.get(spec);
+        if (queue == null) return generate(spec);
+        Board board = queue.poll();
+        refill(queue, spec);
+        return board != null ? board : generate(spec);
+    }
+
+    private BlockingQueue<Board> queue(Spec spec) {
+        return boards.computeIfAbsent(spec, s -> new ArrayBlockingQueue<>(capacity));
+    }
+
+    private void refill(BlockingQueue<Board> queue, Spec spec) {
+        refill.execute(() -> {
+            while (queue.remainingCapacity() > 0) {
+                if (!queue.offer(generate(spec))) return;
+            }
+        });
+    }
+
+    private Board generate(Spec spec) {
+        return generator.generate(spec.cols, spec.rows, spec.minesCount, random.nextLong());
+    }
+
+    private static class Spec {
+        private final int cols;
+        private final int rows;
+        private final int minesCount;
+
+        Spec(int cols, int rows, int minesCount) {
+            this.cols = cols;
+            this.rows = rows;
+            this.minesCount = minesCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Spec spec = (Spec) o;
+            return cols == spec.cols && rows == spec.rows && minesCount == spec.minesCount;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = cols;
+            result = 31 * result + rows;
+            result = 31 * result + minesCount;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package me.wbars.minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Independent part of the frontier: unknown cells linked by the numbers around them.
+ * <p>
+ * Counts mine assignments satisfying every number, split by how many mines they use. Cells are assigned one by
+ * one and partial assignments are merged when the numbers still in progress expect the same amount of mines, so
+ * the work grows with the number of such distinct states rather than with the number of assignments. A forward
+ * pass counts the ways to reach every state, a backward pass the ways to complete it, and both together give the
+ * count of assignments where a given cell is a mine.
+ */
+class Component {
+    final int[] cells;
+    private final int[] targets;
+    private final int[] firstCell;
+    private final int[][] cellConstraints;
+    /**
+     * For every cell and every number around it, how many cells of that number come later in the order.
+     */
+    private final int[][] remainingAfter;
+    private final int[][] openAt;
+    private final int[] work;
+
+    /**
+     * Assignments with k mines in total.
+     */
+    double[] weights;
+    /**
+     * Assignments with k mines in total where the cell is a mine, per cell.
+     */
+    double[][] mineWeights;
+
+    /**
+     * @param cells       unknown cells in the order they are assigned, neighbouring cells should stay close
+     * @param targets     mines still missing around every number
+     * @param constraints positions in {@code cells} around every number
+     */
+    Component(int[] cells, int[] targets, int[][] constraints) {
+        this.cells = cells;
+        this.targets = targets;
+        work = new int[targets.length];
+
+        firstCell = new int[targets.length];
+        int[] lastCell = new int[targets.length];
+        int[] constraintsCount = new int[cells.length];
+        for (int c = 0; c < constraints.length; c++) {
+            firstCell[c] = Integer.MAX_VALUE;
+            for (int position : constraints[c]) {
+                firstCell[c] = Math.min(firstCell[c], position);
+                lastCell[c] = Math.max(lastCell[c], position);
+                constraintsCount[position]++;
+            }
+        }
+        cellConstraints = new int[cells.length][];
+        remainingAfter = new int[cells.length][];
+        for (int v = 0; v < cells.length; v++) {
+            cellConstraints[v] = new int[constraintsCount[v]];
+            remainingAfter[v] = new int[constraintsCount[v]];
+        }
+        Arrays.fill(constraintsCount, 0);
+        for (int c = 0; c < constraints.length; c++) {
+            for (int position : constraints[c]) {
+                int later = 0;
+                for (int other : constraints[c]) if (other > position) later++;
+                remainingAfter[position][constraintsCount[position]] = later;
+                cellConstraints[position][constraintsCount[position]++] = c;
+            }
+        }
+
+        openAt = new int[cells.length + 1][];
+        for (int v = 0; v <= cells.length; v++) {
+            int open = 0;
+            for (int c = 0; c < targets.length; c++) if (firstCell[c] < v && lastCell[c] >= v) open++;
+            openAt[v] = new int[open];
+            open = 0;
+            for (int c = 0; c < targets.length; c++) if (firstCell[c] < v && lastCell[c] >= v) openAt[v][open++] = c;
+        }
+    }
+
+    /**
+     * Fills {@link #weights} and {@link #mineWeights}, both scaled by the same factor to stay in double range.
+     */
+    void count() {
+        List<List<Node>> layers = forward();
+        Node root = layers.get(0).get(0);
+        backward(layers);
+
+        double scale = 0;
+        for (double w : root.completions) scale = Math.max(scale, w);
+        if (scale == 0) throw new IllegalStateException("Numbers on the board contradict each other");
+        weights = scaled(root.completions, scale);
+        mineWeights = new double[cells.length][];
+        for (int v = 0; v < cells.length; v++) {
+            double[] mines = new double[cells.length + 1];
+            for (Node node : layers.get(v)) {
+                Node next = node.next[1];
+                if (next == null) continue;
+                for (int k1 = 0; k1 < node.ways.length; k1++) {
+                    if (node.ways[k1] == 0) continue;
+                    for (int k2 = 0; k2 < next.completions.length; k2++) {
+                        mines[k1 + k2 + 1] += node.ways[k1] * next.completions[k2];
+                    }
+                }
+            }
+            mineWeights[v] = scaled(mines, scale);
+        }
+    }
+
+    private List<List<Node>> forward() {
+        List<List<Node>> layers = new ArrayList<>(cells.length + 1);
+        Node root = new Node(new Key(new byte[0]), 1);
+        root.ways[0] = 1;
+        layers.add(new ArrayList<>(Arrays.asList(root)));
+
+        for (int v = 0; v < cells.length; v++) {
+            Map<Key, Node> next = new HashMap<>();
+            for (Node node : layers.get(v)) {
+                for (int mine = 0; mine <= 1; mine++) {
+                    Key key = transition(v, node.key, mine);
+                    if (key == null) continue;
+                    Node target = next.computeIfAbsent(key, k -> new Node(k, node.ways.length + 1));
+                    for (int k = 0; k < node.ways.length; k++) target.ways[k + mine] += node.ways[k];
+                    node.next[mine] = target;
+                }
+            }
+            if (next.isEmpty()) throw new IllegalStateException("Numbers on the board contradict each other");
+            layers.add(new ArrayList<>(next.values()));
+        }
+        return layers;
+    }
+
+    private void backward(List<List<Node>> layers) {
+        for (Node node : layers.get(cells.length)) {
+            node.completions = new double[]{1};
+        }
+        for (int v = cells.length - 1; v >= 0; v--) {
+            for (Node node : layers.get(v)) {
+                node.completions = new double[cells.length - v + 1];
+                for (int mine = 0; mine <= 1; mine++) {
+                    Node next = node.next[mine];
+                    if (next == null) continue;
+                    for (int k = 0; k < next.completions.length; k++) node.completions[k + mine] += next.completions[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return state after assigning cell v, null if that breaks some number
+     */
+    private Key transition(int v, Key key, int mine) {
+        for (int k = 0; k < openAt[v].length; k++) work[openAt[v][k]] = key.residuals[k];
+        int[] constraints = cellConstraints[v];
+        for (int t = 0; t < constraints.length; t++) {
+            int c = constraints[t];
+            if (firstCell[c] == v) work[c] = targets[c];
+            work[c] -= mine;
+            if (work[c] < 0 || work[c] > remainingAfter[v][t]) return null;
+        }
+        byte[] residuals = new byte[openAt[v + 1].length];
+        for (int k = 0; k < residuals.length; k++) residuals[k] = (byte) work[openAt[v + 1][k]];
+        return new Key(residuals);
+    }
+
+    private static double[] scaled(double[] values, double scale) {
+        double[] result = new double[values.length];
+        for (int k = 0; k < values.length; k++) result[k] = values[k] / scale;
+        return result;
+    }
+
+    /**
+     * Partial assignment of the first cells: {@code ways[k]} to reach it with k mines,
+     * {@code completions[k]} to finish it with k more mines.
+     */
+    private static class Node {
+        final Key key;
+        final double[] ways;
+        final Node[] next = new Node[2];
+        double[] completions;
+
+        Node(Key key, int size) {
+            this.key = key;
+            this.ways = new double[size];
+        }
+    }
+
+    /**
+     * Mines still expected by the numbers in progress.
+     */
+    private static class Key {
+        final byte[] residuals;
+        private final int hash;
+
+        Key(byte[] residuals) {
+            this.residuals = residuals;
+            this.hash = Arrays.hashCode(residuals);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(residuals, ((Key) o).residuals);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates boards that a logic-only {@link Solver} wins from the first click, so they never require a guess.
+ * <p>
+ * Candidates are numbered and derived from the seed, workers on the pool take candidate numbers in order and stop
+ * as soon as a valid candidate with a lower number is known. The lowest valid candidate wins, so the same seed
+ * gives the same board however many workers there are.
+ */
+public class NoGuessGenerator {
+    private static final long DEFAULT_MAX_CANDIDATES = 1_000_000;
+
+    private final ForkJoinPool pool;
+    private final long maxCandidates;
+
+    public NoGuessGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public NoGuessGenerator(ForkJoinPool pool) {
+        this(pool, DEFAULT_MAX_CANDIDATES);
+    }
+
+    public NoGuessGenerator(ForkJoinPool pool, long maxCandidates) {
+        this.pool = pool;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Board with the centre cell opened.
+     */
+    public Board generate(int cols, int rows, int minesCount, long seed) {
+        return generate(cols, rows, minesCount, seed, rows / 2, cols / 2);
+    }
+
+    /**
+     * Board with cell (i, j) opened.
+     */
+    public Board generate(int cols, int rows, int minesCount, long seed, int i, int j) {
+        AtomicLong next = new AtomicLong();
+        AtomicLong found = new AtomicLong(Long.MAX_VALUE);
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int w = 0; w < pool.getParallelism(); w++) {
+            workers.add(pool.submit(() -> {
+                for (long candidate = next.getAndIncrement();
+                     candidate < maxCandidates && candidate < found.get();
+                     candidate = next.getAndIncrement()) {
+                    if (solvable(candidate(cols, rows, minesCount, seed, candidate, i, j))) {
+                        found.accumulateAndGet(candidate, Math::min);
+                    }
+                }
+            }));
+        }
+        workers.forEach(ForkJoinTask::join);
+
+        if (found.get() == Long.MAX_VALUE) {
+            throw new IllegalStateException("No board without guessing among " + maxCandidates + " candidates");
+        }
+        return candidate(cols, rows, minesCount, seed, found.get(), i, j);
+    }
+
+    private static Board candidate(int cols, int rows, int minesCount, long seed, long candidate, int i, int j) {
+        Board board = Board.create(cols, rows, minesCount, seed + candidate * 0x9E3779B97F4A7C15L);
+        board.safeNeighbourhood(true);
+        board.open(i, j);
+        return board;
+    }
+
+    private static boolean solvable(Board board) {
+        return new Solver(board, false).solve() == Board.Status.WON;
+    }
+}
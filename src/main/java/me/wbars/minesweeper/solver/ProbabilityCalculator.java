@@ -0,0 +1,253 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.util.IntList;
+import me.wbars.minesweeper.util.IntQueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Exact probability of every closed cell being a mine, given what a player sees: numbers on open cells, flags
+ * (trusted to be on mines) and the total mines count.
+ * <p>
+ * Unknown cells next to numbers are split into independent components, every component counts its solutions
+ * per number of mines (see {@link Component}), and components are combined with the binomial weight of spreading
+ * the rest of the mines over the unknown cells away from the numbers. Components can be counted in parallel.
+ */
+public class ProbabilityCalculator {
+    private final Board board;
+    private final ForkJoinPool pool;
+    private final int cols;
+    private final int rows;
+
+    public ProbabilityCalculator(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * @param pool pool to count components on, null to count them on the calling thread
+     */
+    public ProbabilityCalculator(Board board, ForkJoinPool pool) {
+        this.board = board;
+        this.pool = pool;
+        this.cols = board.cols();
+        this.rows = board.rows();
+    }
+
+    /**
+     * @return probabilities by linear index {@code i * cols + j}: 0 for open cells, 1 for flags
+     */
+    public double[] compute() {
+        int area = cols * rows;
+        double[] probabilities = new double[area];
+        boolean[] unknown = new boolean[area];
+        int unknownCells = 0;
+        int flags = 0;
+        for (int index = 0; index < area; index++) {
+            if (board.isFlag(row(index), col(index))) {
+                probabilities[index] = 1;
+                flags++;
+            } else if (!board.isOpen(row(index), col(index))) {
+                unknown[index] = true;
+                unknownCells++;
+            }
+        }
+
+        List<Component> components = components(unknown);
+        if (pool == null) {
+            components.forEach(Component::count);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(components.size());
+            for (Component component : components) tasks.add(pool.submit(component::count));
+            tasks.forEach(ForkJoinTask::join);
+        }
+
+        boolean[] free = unknown.clone();
+        int freeCells = unknownCells;
+        for (Component component : components) {
+            freeCells -= component.cells.length;
+            for (int cell : component.cells) free[cell] = false;
+        }
+        combine(components, probabilities, free, board.minesCount() - flags, freeCells);
+        return probabilities;
+    }
+
+    /**
+     * @param free      unknown cells away from numbers
+     * @param mines     mines left to find
+     * @param freeCells count of free cells
+     */
+    private void combine(List<Component> components, double[] probabilities, boolean[] free, int mines, int freeCells) {
+        int frontierCells = 0;
+        for (Component component : components) frontierCells += component.cells.length;
+        double[] binomials = binomials(freeCells, mines, frontierCells);
+
+        int size = components.size();
+        double[][] prefix = new double[size + 1][];
+        double[][] suffix = new double[size + 1][];
+        prefix[0] = new double[]{1};
+        suffix[size] = new double[]{1};
+        for (int c = 0; c < size; c++) prefix[c + 1] = convolve(prefix[c], components.get(c).weights);
+        for (int c = size - 1; c >= 0; c--) suffix[c] = convolve(components.get(c).weights, suffix[c + 1]);
+
+        double total = 0;
+        for (int s = 0; s < prefix[size].length; s++) total += prefix[size][s] * binomial(binomials, mines, s);
+        if (total == 0) throw new IllegalStateException("Mines count contradicts the numbers on the board");
+
+        for (int c = 0; c < size; c++) {
+            Component component = components.get(c);
+            double[] others = convolve(prefix[c], suffix[c + 1]);
+            double[] rest = new double[component.weights.length];
+            for (int k = 0; k < rest.length; k++) {
+                for (int s = 0; s < others.length; s++) rest[k] += others[s] * binomial(binomials, mines, k + s);
+            }
+            for (int v = 0; v < component.cells.length; v++) {
+                double weight = 0;
+                for (int k = 0; k < rest.length; k++) weight += component.mineWeights[v][k] * rest[k];
+                probabilities[component.cells[v]] = weight / total;
+            }
+        }
+
+        if (freeCells == 0) return;
+        double freeMines = 0;
+        for (int s = 0; s < prefix[size].length; s++) {
+            freeMines += prefix[size][s] * binomial(binomials, mines, s) * (mines - s);
+        }
+        double probability = freeMines / freeCells / total;
+        for (int index = 0; index < free.length; index++) {
+            if (free[index]) probabilities[index] = probability;
+        }
+    }
+
+    /**
+     * C(free, r) for r from {@code mines - frontierCells} to {@code mines}, scaled so the largest is 1.
+     * Stored by {@code mines - r}, the number of mines taken by the frontier.
+     */
+    private static double[] binomials(int free, int mines, int frontierCells) {
+        double[] logs = new double[frontierCells + 1];
+        double max = Double.NEGATIVE_INFINITY;
+        int low = Math.max(0, mines - frontierCells);
+        int high = Math.min(free, mines);
+        double log = 0;
+        for (int r = low; r <= high; r++) {
+            if (r > low) log += Math.log((double) (free - r + 1) / r);
+            logs[mines - r] = log;
+            max = Math.max(max, log);
+        }
+        double[] result = new double[frontierCells + 1];
+        for (int r = low; r <= high; r++) result[mines - r] = Math.exp(logs[mines - r] - max);
+        return result;
+    }
+
+    private static double binomial(double[] binomials, int mines, int frontierMines) {
+        return frontierMines <= mines && frontierMines < binomials.length ? binomials[frontierMines] : 0;
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        for (int x = 0; x < a.length; x++) {
+            if (a[x] == 0) continue;
+            for (int y = 0; y < b.length; y++) result[x + y] += a[x] * b[y];
+        }
+        return result;
+    }
+
+    /**
+     * Groups unknown cells next to numbers into components, ordering cells of each component breadth-first so
+     * that numbers in progress stay few while it is counted.
+     */
+    private List<Component> components(boolean[] unknown) {
+        int area = unknown.length;
+        int[] neighbours = new int[8];
+        List<int[]> constraintCells = new ArrayList<>();
+        IntList targets = new IntList();
+        int[] cellConstraintsCount = new int[area];
+        for (int index = 0; index < area; index++) {
+            if (unknown[index] || board.isFlag(row(index), col(index))) continue;
+            int count = neighbours(index, neighbours);
+            int target = board.minesCount(row(index), col(index));
+            int size = 0;
+            for (int k = 0; k < count; k++) {
+                int neighbour = neighbours[k];
+                if (unknown[neighbour]) neighbours[size++] = neighbour;
+                else if (board.isFlag(row(neighbour), col(neighbour))) target--;
+            }
+            if (size == 0) continue;
+            constraintCells.add(Arrays.copyOf(neighbours, size));
+            targets.add(target);
+            for (int k = 0; k < size; k++) cellConstraintsCount[neighbours[k]]++;
+        }
+
+        int[][] cellConstraints = new int[area][];
+        for (int c = 0; c < constraintCells.size(); c++) {
+            for (int cell : constraintCells.get(c)) {
+                if (cellConstraints[cell] == null) cellConstraints[cell] = new int[cellConstraintsCount[cell]];
+                cellConstraints[cell][--cellConstraintsCount[cell]] = c;
+            }
+        }
+
+        List<Component> components = new ArrayList<>();
+        int[] position = new int[area];
+        Arrays.fill(position, -1);
+        boolean[] constraintSeen = new boolean[constraintCells.size()];
+        IntQueue queue = new IntQueue();
+        for (int start = 0; start < area; start++) {
+            if (cellConstraints[start] == null || position[start] >= 0) continue;
+            IntList cells = new IntList();
+            IntList constraints = new IntList();
+            position[start] = 0;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                cells.add(cell);
+                for (int c : cellConstraints[cell]) {
+                    if (constraintSeen[c]) continue;
+                    constraintSeen[c] = true;
+                    constraints.add(c);
+                    for (int other : constraintCells.get(c)) {
+                        if (position[other] >= 0) continue;
+                        position[other] = 0;
+                        queue.add(other);
+                    }
+                }
+            }
+            for (int v = 0; v < cells.size(); v++) position[cells.get(v)] = v;
+
+            int[] componentTargets = new int[constraints.size()];
+            int[][] componentConstraints = new int[constraints.size()][];
+            for (int k = 0; k < constraints.size(); k++) {
+                int c = constraints.get(k);
+                componentTargets[k] = targets.get(c);
+                int[] members = constraintCells.get(c);
+                componentConstraints[k] = new int[members.length];
+                for (int m = 0; m < members.length; m++) componentConstraints[k][m] = position[members[m]];
+            }
+            components.add(new Component(cells.toArray(), componentTargets, componentConstraints));
+        }
+        return components;
+    }
+
+    private int neighbours(int index, int[] out) {
+        int i = row(index);
+        int j = col(index);
+        int count = 0;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                if (ni != i || nj != j) out[count++] = ni * cols + nj;
+            }
+        }
+        return count;
+    }
+
+    private int row(int index) {
+        return index / cols;
+    }
+
+    private int col(int index) {
+        return index % cols;
+    }
+}
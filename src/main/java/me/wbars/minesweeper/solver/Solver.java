@@ -0,0 +1,406 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.util.IntList;
+import me.wbars.minesweeper.util.IntQueue;
+
+import java.util.Arrays;
+
+/**
+ * Plays a {@link Board} using only what a player can see: states of cells, numbers on open cells and flags.
+ * <p>
+ * Deduction goes from cheap to expensive: single-cell rules on numbers whose neighbourhood changed, then pairwise
+ * reduction between overlapping numbers of the frontier, then the global mines count. When logic runs out it
+ * guesses the cell with the lowest estimated mine probability, unless created as logic-only.
+ * <p>
+ * Cells revealed by a move are discovered by walking the opened region from the clicked cell, so each move costs
+ * time proportional to what it changed, not to the board area. A solver keeps scratch state and must be used
+ * from one thread with one board.
+ */
+public class Solver {
+    private final Board board;
+    private final int cols;
+    private final int rows;
+    private final boolean guessing;
+
+    /**
+     * Open or flagged cells the solver has already taken into account.
+     */
+    private final boolean[] known;
+    private final boolean[] queued;
+    private final boolean[] inFrontier;
+    private final IntQueue work = new IntQueue();
+    private final IntQueue discovered = new IntQueue();
+    private final IntList frontier = new IntList();
+
+    private final int[] neighbours = new int[8];
+    private final int[] unknownA = new int[8];
+    private final int[] unknownB = new int[8];
+    private final double[] risk;
+    private final int[] riskStamp;
+    private int stamp;
+
+    private boolean started;
+    private int unknownCells;
+    private int flags;
+    private int nextUnknown;
+    private int nextIsolated;
+    private int guesses;
+
+    public Solver(Board board) {
+        this(board, true);
+    }
+
+    /**
+     * @param guessing whether to guess when no safe move can be deduced, a logic-only solver stops instead
+     */
+    public Solver(Board board, boolean guessing) {
+        this.board = board;
+        this.cols = board.cols();
+        this.rows = board.rows();
+        this.guessing = guessing;
+        int area = cols * rows;
+        known = new boolean[area];
+        queued = new boolean[area];
+        inFrontier = new boolean[area];
+        risk = new double[area];
+        riskStamp = new int[area];
+        reset();
+    }
+
+    /**
+     * Forgets everything known about the board and takes it as it is now, e.g. after {@link Board#reset(long)}.
+     * Reuses the scratch state, so a solver can play game after game on one board without allocating.
+     */
+    public void reset() {
+        Arrays.fill(known, false);
+        Arrays.fill(queued, false);
+        Arrays.fill(inFrontier, false);
+        work.clear();
+        discovered.clear();
+        frontier.clear();
+        started = false;
+        flags = 0;
+        nextUnknown = 0;
+        nextIsolated = 0;
+        guesses = 0;
+        int area = known.length;
+        unknownCells = area;
+        for (int index = 0; index < area; index++) {
+            if (board.isOpen(row(index), col(index))) {
+                started = true;
+                discover(index);
+            } else if (board.isFlag(row(index), col(index))) {
+                markFlag(index);
+            }
+        }
+    }
+
+    /**
+     * Plays until the game is over or, for a logic-only solver, until no safe move can be deduced.
+     */
+    public Board.Status solve() {
+        while (board.status() == Board.Status.PLAYING && step()) {
+            // keep going
+        }
+        return board.status();
+    }
+
+    /**
+     * Makes at least one move.
+     *
+     * @return false if no move was made
+     */
+    public boolean step() {
+        if (board.status() != Board.Status.PLAYING) return false;
+        if (!started) {
+            start(rows / 2, cols / 2);
+            return true;
+        }
+        if (propagate()) return true;
+        if (reduce()) return true;
+        if (countMines()) return true;
+        return guessing && guess();
+    }
+
+    /**
+     * Opens the first cell, by default the solver starts from the centre of the board.
+     */
+    public void start(int i, int j) {
+        if (started) throw new IllegalStateException("Already started");
+        started = true;
+        open(index(i, j));
+    }
+
+    public int guesses() {
+        return guesses;
+    }
+
+    private boolean propagate() {
+        boolean moved = false;
+        while (!work.isEmpty() && board.status() == Board.Status.PLAYING) {
+            int cell = work.poll();
+            queued[cell] = false;
+            moved |= applySingle(cell);
+        }
+        return moved;
+    }
+
+    private boolean applySingle(int cell) {
+        int unknown = unknownNeighbours(cell, unknownA);
+        if (unknown == 0) return false;
+        int remaining = remainingMines(cell);
+        if (remaining == 0) {
+            openAll(unknownA, unknown);
+            return true;
+        }
+        if (remaining == unknown) {
+            flagAll(unknownA, unknown);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * For two numbers A and B with unknown cells U(A) and U(B): if B needs exactly as many more mines than A as
+     * there are cells in U(B) \ U(A), those cells are all mines and U(A) \ U(B) is safe.
+     */
+    private boolean reduce() {
+        compactFrontier();
+        for (int f = 0; f < frontier.size(); f++) {
+            int a = frontier.get(f);
+            int unknownInA = unknownNeighbours(a, unknownA);
+            int remainingA = remainingMines(a);
+            int ai = row(a);
+            int aj = col(a);
+            for (int bi = Math.max(0, ai - 2); bi <= Math.min(rows - 1, ai + 2); bi++) {
+                for (int bj = Math.max(0, aj - 2); bj <= Math.min(cols - 1, aj + 2); bj++) {
+                    int b = index(bi, bj);
+                    if (b == a || !inFrontier[b]) continue;
+                    int unknownInB = unknownNeighbours(b, unknownB);
+                    if (unknownInB == 0) continue;
+                    int common = common(unknownA, unknownInA, unknownB, unknownInB);
+                    int onlyB = unknownInB - common;
+                    if (onlyB + unknownInA - common == 0 || remainingMines(b) - remainingA != onlyB) continue;
+
+                    for (int k = 0; k < unknownInB; k++) {
+                        if (!contains(unknownA, unknownInA, unknownB[k])) flag(unknownB[k]);
+                    }
+                    for (int k = 0; k < unknownInA && board.status() == Board.Status.PLAYING; k++) {
+                        if (!known[unknownA[k]] && !contains(unknownB, unknownInB, unknownA[k])) open(unknownA[k]);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * All remaining mines are flagged, or every unknown cell has to be a mine.
+     */
+    private boolean countMines() {
+        int minesLeft = board.minesCount() - flags;
+        if (unknownCells == 0 || minesLeft != 0 && minesLeft != unknownCells) return false;
+        while (unknownCells > 0 && board.status() == Board.Status.PLAYING) {
+            int cell = nextUnknown();
+            if (minesLeft == 0) open(cell);
+            else flag(cell);
+        }
+        return true;
+    }
+
+    private boolean guess() {
+        compactFrontier();
+        stamp++;
+        int best = -1;
+        for (int f = 0; f < frontier.size(); f++) {
+            int cell = frontier.get(f);
+            int unknown = unknownNeighbours(cell, unknownA);
+            double p = (double) remainingMines(cell) / unknown;
+            for (int k = 0; k < unknown; k++) {
+                int candidate = unknownA[k];
+                if (riskStamp[candidate] != stamp || risk[candidate] < p) {
+                    riskStamp[candidate] = stamp;
+                    risk[candidate] = p;
+                }
+            }
+        }
+        for (int f = 0; f < frontier.size(); f++) {
+            int unknown = unknownNeighbours(frontier.get(f), unknownA);
+            for (int k = 0; k < unknown; k++) {
+                if (best < 0 || risk[unknownA[k]] < risk[best]) best = unknownA[k];
+            }
+        }
+
+        int isolated = nextIsolated();
+        double density = (double) (board.minesCount() - flags) / unknownCells;
+        if (isolated >= 0 && (best < 0 || density < risk[best])) best = isolated;
+        if (best < 0) best = nextUnknown();
+
+        guesses++;
+        open(best);
+        return true;
+    }
+
+    private void open(int cell) {
+        board.open(row(cell), col(cell));
+        if (board.status() == Board.Status.LOST) return;
+        discovered.add(cell);
+        known[cell] = true;
+        unknownCells--;
+        while (!discovered.isEmpty()) {
+            int opened = discovered.poll();
+            enqueue(opened);
+            int count = neighbours(opened, neighbours);
+            for (int k = 0; k < count; k++) {
+                int neighbour = neighbours[k];
+                if (known[neighbour]) {
+                    if (board.isOpen(row(neighbour), col(neighbour))) enqueue(neighbour);
+                } else if (board.isOpen(row(neighbour), col(neighbour))) {
+                    known[neighbour] = true;
+                    unknownCells--;
+                    discovered.add(neighbour);
+                }
+            }
+        }
+    }
+
+    private void discover(int cell) {
+        known[cell] = true;
+        unknownCells--;
+        enqueue(cell);
+    }
+
+    private void flag(int cell) {
+        if (known[cell]) return;
+        board.toggleFlag(row(cell), col(cell));
+        markFlag(cell);
+        int count = neighbours(cell, neighbours);
+        for (int k = 0; k < count; k++) {
+            int neighbour = neighbours[k];
+            if (known[neighbour] && board.isOpen(row(neighbour), col(neighbour))) enqueue(neighbour);
+        }
+    }
+
+    private void markFlag(int cell) {
+        known[cell] = true;
+        unknownCells--;
+        flags++;
+    }
+
+    private void openAll(int[] cells, int count) {
+        for (int k = 0; k < count && board.status() == Board.Status.PLAYING; k++) {
+            if (!known[cells[k]]) open(cells[k]);
+        }
+    }
+
+    private void flagAll(int[] cells, int count) {
+        for (int k = 0; k < count; k++) flag(cells[k]);
+    }
+
+    private void enqueue(int cell) {
+        if (board.minesCount(row(cell), col(cell)) == 0) return;
+        if (!queued[cell]) {
+            queued[cell] = true;
+            work.add(cell);
+        }
+        if (!inFrontier[cell]) {
+            inFrontier[cell] = true;
+            frontier.add(cell);
+        }
+    }
+
+    /**
+     * Drops numbers that have no unknown neighbours left.
+     */
+    private void compactFrontier() {
+        int size = 0;
+        for (int f = 0; f < frontier.size(); f++) {
+            int cell = frontier.get(f);
+            if (unknownNeighbours(cell, unknownB) > 0) frontier.set(size++, cell);
+            else inFrontier[cell] = false;
+        }
+        frontier.truncate(size);
+    }
+
+    private int remainingMines(int cell) {
+        int flagged = 0;
+        int count = neighbours(cell, neighbours);
+        for (int k = 0; k < count; k++) {
+            if (board.isFlag(row(neighbours[k]), col(neighbours[k]))) flagged++;
+        }
+        return board.minesCount(row(cell), col(cell)) - flagged;
+    }
+
+    private int unknownNeighbours(int cell, int[] out) {
+        int unknown = 0;
+        int count = neighbours(cell, neighbours);
+        for (int k = 0; k < count; k++) {
+            if (!known[neighbours[k]]) out[unknown++] = neighbours[k];
+        }
+        return unknown;
+    }
+
+    private int nextUnknown() {
+        while (known[nextUnknown]) nextUnknown++;
+        return nextUnknown;
+    }
+
+    /**
+     * Unknown cell with no open neighbours. Cells only ever get open neighbours, so the scan never goes back.
+     */
+    private int nextIsolated() {
+        for (; nextIsolated < known.length; nextIsolated++) {
+            if (!known[nextIsolated] && !hasOpenNeighbour(nextIsolated)) return nextIsolated;
+        }
+        return -1;
+    }
+
+    private boolean hasOpenNeighbour(int cell) {
+        int count = neighbours(cell, neighbours);
+        for (int k = 0; k < count; k++) {
+            if (known[neighbours[k]] && board.isOpen(row(neighbours[k]), col(neighbours[k]))) return true;
+        }
+        return false;
+    }
+
+    private int neighbours(int cell, int[] out) {
+        int i = row(cell);
+        int j = col(cell);
+        int count = 0;
+        for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+            for (int nj = Math.max(0, j - 1); nj <= Math.min(cols - 1, j + 1); nj++) {
+                if (ni != i || nj != j) out[count++] = index(ni, nj);
+            }
+        }
+        return count;
+    }
+
+    private static int common(int[] a, int sizeA, int[] b, int sizeB) {
+        int common = 0;
+        for (int k = 0; k < sizeB; k++) {
+            if (contains(a, sizeA, b[k])) common++;
+        }
+        return common;
+    }
+
+    private static boolean contains(int[] cells, int size, int cell) {
+        for (int k = 0; k < size; k++) {
+            if (cells[k] == cell) return true;
+        }
+        return false;
+    }
+
+    private int index(int i, int j) {
+        return i * cols + j;
+    }
+
+    private int row(int index) {
+        return index / cols;
+    }
+
+    private int col(int index) {
+        return index % cols;
+    }
+}
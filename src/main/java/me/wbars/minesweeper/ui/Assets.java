@@ -0,0 +1,72 @@
+package me.wbars.minesweeper.ui;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Images shared by every panel of the process. Each picture is decoded once and scaled once per size into an
+ * image compatible with the screen, sprites are rendered once per cell size, so a new game or a zoom level seen
+ * before costs nothing.
+ */
+final class Assets {
+    private static final Map<String, BufferedImage> decoded = new ConcurrentHashMap<>();
+    private static final Map<String, BufferedImage> scaled = new ConcurrentHashMap<>();
+    private static final Map<String, ImageIcon> icons = new ConcurrentHashMap<>();
+    private static final Map<Integer, Sprites> sprites = new ConcurrentHashMap<>();
+
+    private Assets() {
+    }
+
+    /**
+     * @param name picture from {@code images/}, without the extension
+     */
+    static ImageIcon icon(String name, int size) {
+        return icons.computeIfAbsent(name + '@' + size, key -> new ImageIcon(image(name, size)));
+    }
+
+    static BufferedImage image(String name, int size) {
+        return scaled.computeIfAbsent(name + '@' + size, key -> scale(decoded(name), size));
+    }
+
+    static Sprites sprites(int cellSize) {
+        return sprites.computeIfAbsent(cellSize, size -> new Sprites(size, image("flag", size), image("mine", size)));
+    }
+
+    static BufferedImage compatibleImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            int type = transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+            return new BufferedImage(width, height, type);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, transparency);
+    }
+
+    private static BufferedImage decoded(String name) {
+        return decoded.computeIfAbsent(name, key -> {
+            URL url = Assets.class.getClassLoader().getResource("images/" + name + ".png");
+            if (url == null) throw new IllegalArgumentException("No image " + name);
+            try {
+                return ImageIO.read(url);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage result = compatibleImage(size, size, Transparency.TRANSLUCENT);
+        Graphics2D g = result.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, size, size, null);
+        g.dispose();
+        return result;
+    }
+}
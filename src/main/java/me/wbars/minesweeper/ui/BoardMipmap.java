@@ -0,0 +1,102 @@
+package me.wbars.minesweeper.ui;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.core.Cell;
+import me.wbars.minesweeper.core.Region;
+
+/**
+ * Overview of a board at every power-of-two scale: on level k a byte is the shade of a 2^k x 2^k block of cells,
+ * the mean of the shades of its cells. Level 0, a shade per cell, is read from the board itself.
+ * <p>
+ * Shades are linear in the share of closed, open and flagged cells, so a block is the mean of the four blocks
+ * below it. A move updates only the blocks over the cells it changed, level by level, in time proportional to
+ * the changed area. Building all levels reads every cell, which takes a while on a big board.
+ */
+class BoardMipmap {
+    static final int CLOSED = 210;
+    static final int OPEN = 140;
+    static final int FLAG = 40;
+    static final int MINE = 0;
+
+    private final Board board;
+    private final byte[][] levels;
+    private final int[] levelRows;
+    private final int[] levelCols;
+
+    BoardMipmap(Board board) {
+        this.board = board;
+        int count = 1;
+        while ((board.rows() - 1 >> count) > 0 || (board.cols() - 1 >> count) > 0) count++;
+        levels = new byte[count + 1][];
+        levelRows = new int[count + 1];
+        levelCols = new int[count + 1];
+        levelRows[0] = board.rows();
+        levelCols[0] = board.cols();
+        for (int level = 1; level <= count; level++) {
+            levelRows[level] = (levelRows[level - 1] + 1) / 2;
+            levelCols[level] = (levelCols[level - 1] + 1) / 2;
+            levels[level] = new byte[levelRows[level] * levelCols[level]];
+        }
+        update(0, 0, board.rows() - 1, board.cols() - 1);
+    }
+
+    /**
+     * Level where one block covers the whole board.
+     */
+    int maxLevel() {
+        return levels.length - 1;
+    }
+
+    int rows(int level) {
+        return levelRows[level];
+    }
+
+    int cols(int level) {
+        return levelCols[level];
+    }
+
+    int shade(int level, int i, int j) {
+        if (level == 0) return shade(board, i, j);
+        return levels[level][i * levelCols[level] + j] & 0xFF;
+    }
+
+    void update(Region region) {
+        if (!region.isEmpty()) update(region.top(), region.left(), region.bottom(), region.right());
+    }
+
+    private void update(int top, int left, int bottom, int right) {
+        for (int level = 1; level < levels.length; level++) {
+            top >>= 1;
+            left >>= 1;
+            bottom >>= 1;
+            right >>= 1;
+            for (int i = top; i <= bottom; i++) {
+                for (int j = left; j <= right; j++) {
+                    levels[level][i * levelCols[level] + j] = (byte) mean(level - 1, i * 2, j * 2);
+                }
+            }
+        }
+    }
+
+    private int mean(int level, int i, int j) {
+        int sum = 0;
+        int count = 0;
+        for (int ni = i; ni < Math.min(i + 2, levelRows[level]); ni++) {
+            for (int nj = j; nj < Math.min(j + 2, levelCols[level]); nj++) {
+                sum += shade(level, ni, nj);
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    /**
+     * Shade of a single cell.
+     */
+    static int shade(Board board, int i, int j) {
+        Cell.State state = board.cellState(i, j);
+        if (state == Cell.State.CLOSED) return CLOSED;
+        if (state == Cell.State.FLAG) return FLAG;
+        return board.isMine(i, j) ? MINE : OPEN;
+    }
+}
@@ -1,62 +1,122 @@
 package me.wbars.minesweeper.ui;
 
 import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.core.Region;
+import me.wbars.minesweeper.util.IntList;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionAdapter;
-import java.net.URL;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static javax.swing.Box.createHorizontalGlue;
 
+/**
+ * Game with a counter of time and flags left. Boards are generated and moves are made on a worker thread, which
+ * writes the board while the EDT waits for the result (see {@link Board} on threading): the panel ignores moves
+ * till then, and a task that takes long shows progress and repaints the cells in view as they change.
+ */
 public class BoardPanel extends JPanel {
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "board-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int PROGRESS_DELAY = 250;
+    private static final int PROGRESS_PERIOD = 100;
+
     private final MyCounter timerPanel = new MyCounter();
     private final MyCounter flagsPanel = new MyCounter();
-    private final ImageIcon upsetIcon = getImageIcon("images/upset.png");
-    private final ImageIcon sadIcon = getImageIcon("images/sad.png");
-    private final ImageIcon smileIcon = getImageIcon("images/smile.png");
-    private final ImageIcon surpriseIcon = getImageIcon("images/surprised.png");
-    private final ImageIcon flagIcon = getImageIcon("images/flag.png");
-    private final ImageIcon mineIcon = getImageIcon("images/mine.png");
-    private int rows;
-    private int cols;
+    private final ImageIcon upsetIcon = Assets.icon("upset", 30);
+    private final ImageIcon sadIcon = Assets.icon("sad", 30);
+    private final ImageIcon smileIcon = Assets.icon("smile", 30);
+    private final ImageIcon surpriseIcon = Assets.icon("surprised", 30);
     private final int minesCount;
-    private JTable table;
+    private final Supplier<Board> boards;
+    private final JProgressBar progressBar = new JProgressBar();
+    private final Timer progress = new Timer(PROGRESS_PERIOD, e -> progress());
+    private boolean busy;
+    private BoardView view;
+    private JScrollPane scrollPane;
     private Board board;
-    private int selectedRow = -1;
-    private int selectedCol = -1;
     private JButton resetButton;
     private int cellSize = 30;
     private JPanel topPanel;
     private int flagsRemain;
+    private GameClock clock;
+    private Window window;
+    private final WindowAdapter windowAdapter = new WindowAdapter() {
+        @Override
+        public void windowIconified(WindowEvent e) {
+            clock.pause(true);
+        }
 
-    private Timer timer;
-    private long start;
+        @Override
+        public void windowDeiconified(WindowEvent e) {
+            clock.pause(!isShowing());
+        }
+    };
 
     public BoardPanel(int rows, int cols, int minesCount) {
-        this.rows = rows;
-        this.cols = cols;
+        this(rows, cols, minesCount, () -> Board.create(cols, rows, minesCount));
+    }
+
+    /**
+     * @param boards source of boards for the first and every restarted game
+     */
+    public BoardPanel(int rows, int cols, int minesCount, Supplier<Board> boards) {
         this.minesCount = minesCount;
+        this.boards = boards;
         restartFlagsCounter();
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 
         topPanel = initTopPanel();
         add(topPanel);
 
-        board = Board.create(cols, rows, minesCount);
-        table = initTable(rows, cols);
-        add(table);
+        scrollPane = new JScrollPane();
+        add(scrollPane);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        add(progressBar);
+        progress.setInitialDelay(PROGRESS_DELAY);
+        newGame();
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) clock.pause(!isShowing());
+        });
+    }
+
+    /**
+     * The clock doesn't wake up while the panel is hidden or its window is minimised.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) window.addWindowListener(windowAdapter);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (window != null) window.removeWindowListener(windowAdapter);
+        window = null;
+        super.removeNotify();
     }
 
     private JPanel initTopPanel() {
         JPanel topPanel = new JPanel();
         topPanel.setLayout(new BoxLayout(topPanel, BoxLayout.X_AXIS));
 
-        initTimer();
+        clock = new GameClock(timerPanel);
+        clock.pause(true);
         topPanel.add(timerPanel);
         topPanel.add(createHorizontalGlue());
         resetButton = resetButtonInit(minesCount);
@@ -68,17 +128,6 @@ public class BoardPanel extends JPanel {
         return topPanel;
     }
 
-    private void initTimer() {
-        timer = new Timer(0, e -> timerPanel.setValue((float) ((e.getWhen() - start) * 1.0 / 1000)));
-        timer.setDelay(50);
-        start = System.currentTimeMillis();
-        timer.start();
-    }
-
-    private URL getImage(String path) {
-        return getClass().getClassLoader().getResource(path);
-    }
-
     private JButton resetButtonInit(int minesCount) {
         JButton button = new JButton(smileIcon);
 
@@ -113,23 +162,64 @@ public class BoardPanel extends JPanel {
             }
         });
 
-        button.addActionListener(e -> {
-            board = Board.create(this.cols, this.rows, minesCount);
-            ((DefaultTableModel) table.getModel()).setRowCount(rows);
-            ((DefaultTableModel) table.getModel()).setColumnCount(cols);
-            restartTimer();
+        button.addActionListener(e -> newGame());
+        return button;
+    }
+
+    private void newGame() {
+        if (busy) return;
+        submit(boards, board -> {
+            this.board = board;
+            clock.reset();
             restartFlagsCounter();
-            table.repaint();
+            if (view != null) {
+                view.board(board);
+                return;
+            }
+            view = initView();
+            scrollPane.setViewportView(view);
+            if (window != null) window.pack();
         });
-        return button;
     }
 
-    private ImageIcon getImageIcon(String path) {
-        ImageIcon icon = new ImageIcon(getImage(path));
-        Image img = icon.getImage();
-        Image newimg = img.getScaledInstance(30, 30, Image.SCALE_SMOOTH);
-        icon = new ImageIcon(newimg);
-        return icon;
+    /**
+     * Runs the task on the worker and hands its result to {@code done} on the EDT. A mipmap the view asked for
+     * meanwhile is built next.
+     */
+    private <T> void submit(Supplier<T> task, Consumer<T> done) {
+        busy(true);
+        worker.execute(() -> {
+            try {
+                T result = task.get();
+                SwingUtilities.invokeLater(() -> {
+                    busy(false);
+                    done.accept(result);
+                    if (view != null) mipmap();
+                });
+            } catch (RuntimeException | Error e) {
+                SwingUtilities.invokeLater(() -> {
+                    busy(false);
+                    throw e;
+                });
+            }
+        });
+    }
+
+    private void busy(boolean busy) {
+        this.busy = busy;
+        if (busy) {
+            progress.restart();
+            return;
+        }
+        progress.stop();
+        progressBar.setVisible(false);
+        setCursor(null);
+    }
+
+    private void progress() {
+        progressBar.setVisible(true);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        if (view != null) view.repaint();
     }
 
     private void restartFlagsCounter() {
@@ -137,87 +227,142 @@ public class BoardPanel extends JPanel {
         flagsPanel.setValue(flagsRemain);
     }
 
-    private void restartTimer() {
-        timer.restart();
-        start = System.currentTimeMillis();
+    private BoardView initView() {
+        BoardView view = new BoardView(board, cellSize);
+        MyMouseAdapter mouseAdapter = new MyMouseAdapter();
+        view.addMouseMotionListener(mouseAdapter);
+        view.addMouseListener(mouseAdapter);
+        view.addMouseWheelListener(e -> {
+            if (e.isControlDown()) zoom(e.getWheelRotation());
+            else scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(view, e, scrollPane));
+        });
+        return view;
     }
 
-    private JTable initTable(int rows, int cols) {
-        JTable table = new JTable(rows, cols);
-        table.setRowHeight(cellSize);
-        for (int i = 0; i < cols; i++) {
-            table.getColumnModel().getColumn(i).setPreferredWidth(cellSize);
-        }
-        table.setShowGrid(true);
-        table.setGridColor(Color.black);
-        for (MouseListener mouseListener : table.getMouseListeners()) {
-            table.removeMouseListener(mouseListener);
-        }
-        table.setColumnSelectionAllowed(false);
-        table.setRowSelectionAllowed(false);
-        table.setDefaultRenderer(Object.class, new AttributiveCellRenderer());
+    /**
+     * Zooms in for negative steps and out for positive ones. Zoomed far out the board turns into an overview
+     * that only shows where cells are open or flagged, moves are made once zoomed back in.
+     */
+    public void zoom(int steps) {
+        if (view == null) return;
+        view.zoomBy(steps);
+        mipmap();
+    }
 
-        table.addMouseMotionListener(new MyMouseAdapter((DefaultTableModel) table.getModel()));
-        table.addMouseListener(new MyMouseAdapter((DefaultTableModel) table.getModel()));
-        return table;
+    /**
+     * Builds the mipmap of the overview on the worker, so it doesn't race a move. The view shades blocks cell by
+     * cell till then.
+     */
+    private void mipmap() {
+        if (busy || !view.needsMipmap()) return;
+        Board board = this.board;
+        submit(() -> new BoardMipmap(board), mipmap -> {
+            if (board == this.board) view.mipmap(mipmap);
+        });
     }
 
     public class MyMouseAdapter extends MouseMotionAdapter implements MouseListener {
-        private final DefaultTableModel model;
+        private static final int BOTH_BUTTONS = InputEvent.BUTTON1_DOWN_MASK | InputEvent.BUTTON3_DOWN_MASK;
 
-        MyMouseAdapter(DefaultTableModel model) {
-            this.model = model;
-        }
+        private boolean chording;
+        private boolean chorded;
 
         public void mouseMoved(MouseEvent e) {
-            if (selectedRow >= 0 && selectedCol >= 0) model.fireTableCellUpdated(selectedRow, selectedCol);
-
-            selectedRow = table.rowAtPoint(e.getPoint());
-            selectedCol = table.columnAtPoint(e.getPoint());
-
-            model.fireTableCellUpdated(selectedRow, selectedCol);
+            Point point = e.getPoint();
+            view.hover(view.rowAt(point), view.colAt(point));
         }
 
         @Override
         public void mouseClicked(MouseEvent e) {
-            int i = table.rowAtPoint(e.getPoint());
-            int j = table.columnAtPoint(e.getPoint());
+            if (chording || chorded) {
+                chorded = false;
+                return;
+            }
+            int i = view.rowAt(e.getPoint());
+            int j = view.colAt(e.getPoint());
+            if (busy || board.status() != Board.Status.PLAYING || !view.detailed()) return;
+            if (SwingUtilities.isMiddleMouseButton(e)) {
+                chord(i, j);
+                return;
+            }
             if (board.isOpen(i, j)) return;
 
             if (SwingUtilities.isRightMouseButton(e) || e.isControlDown()) {
                 if (!board.isFlag(i, j) && flagsRemain == 0) return;
-                boolean newValue = board.toggleFlag(i, j);
-                if (newValue) flagsRemain--;
-                else flagsRemain++;
+                if (board.isFlag(i, j)) flagsRemain++;
+                else flagsRemain--;
                 flagsPanel.setValue(flagsRemain);
-
-                if (board.isWin()) {
-                    timer.stop();
-                    board.reveal(false);
-                    resetButton.setIcon(upsetIcon);
-                    showMessageDialog("Win");
-                }
+                move(() -> board.toggleFlag(i, j));
             } else {
-                board.open(i, j);
-                if (board.isMine(i, j)) {
-                    timer.stop();
-                    board.reveal(true);
-                    resetButton.setIcon(sadIcon);
-                    showMessageDialog("Loose");
+                clock.start();
+                move(() -> board.open(i, j));
+            }
+        }
+
+        private void chord(int i, int j) {
+            if (busy || board.status() != Board.Status.PLAYING || !view.detailed()) return;
+            move(() -> board.chord(i, j));
+        }
+
+        /**
+         * Makes the move on the worker along with revealing the board once the game is over and updating the
+         * mipmap of the overview, then repaints the cells changed by both. Updates of a board-wide cascade or
+         * reveal take as long as the move, so none of it runs on the EDT.
+         */
+        private void move(Runnable move) {
+            Board board = BoardPanel.this.board;
+            BoardMipmap mipmap = view.mipmap();
+            submit(() -> {
+                move.run();
+                Region region = board.changed();
+                Board.Status status = board.status();
+                IntList exploded = new IntList();
+                if (status == Board.Status.LOST) exploded(board, region, exploded);
+                if (status != Board.Status.PLAYING) board.reveal(status == Board.Status.LOST);
+                Region revealed = board.changed();
+                if (mipmap != null) {
+                    mipmap.update(region);
+                    mipmap.update(revealed);
                 }
+                return () -> moved(status, region, exploded, revealed);
+            }, Runnable::run);
+        }
+
+        private void moved(Board.Status status, Region region, IntList exploded, Region revealed) {
+            view.repaint(region);
+            if (status == Board.Status.PLAYING) return;
+            clock.stop();
+            for (int k = 0; k < exploded.size(); k++) {
+                view.explode(exploded.get(k) / board.cols(), exploded.get(k) % board.cols());
             }
+            view.repaint(revealed);
+            resetButton.setIcon(status == Board.Status.WON ? upsetIcon : sadIcon);
+            showMessageDialog(status == Board.Status.WON ? "Win" : "Loose");
+        }
 
-            table.repaint();
+        private void exploded(Board board, Region region, IntList exploded) {
+            for (int i = region.top(); i <= region.bottom(); i++) {
+                for (int j = region.left(); j <= region.right(); j++) {
+                    if (board.isOpen(i, j) && board.isMine(i, j)) exploded.add(i * board.cols() + j);
+                }
+            }
         }
 
+        /**
+         * Pressing both buttons and releasing them chords the cell under the cursor.
+         */
         @Override
         public void mousePressed(MouseEvent e) {
-
+            chorded = false;
+            if ((e.getModifiersEx() & BOTH_BUTTONS) == BOTH_BUTTONS) chording = true;
         }
 
         @Override
         public void mouseReleased(MouseEvent e) {
-
+            if (!chording || (e.getModifiersEx() & BOTH_BUTTONS) != 0) return;
+            chording = false;
+            chorded = true;
+            chord(view.rowAt(e.getPoint()), view.colAt(e.getPoint()));
         }
 
         @Override
@@ -227,84 +372,11 @@ public class BoardPanel extends JPanel {
 
         @Override
         public void mouseExited(MouseEvent e) {
-
+            view.hover(-1, -1);
         }
     }
 
     private void showMessageDialog(String msg) {
         JOptionPane.showMessageDialog(this, msg);
     }
-
-    public class AttributiveCellRenderer extends JLabel implements TableCellRenderer {
-        private Color background = Color.gray;
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            GradientPaint gp = new GradientPaint(0, 0, background.brighter(), 0, getHeight(), background);
-
-            g2d.setPaint(gp);
-            g2d.fillRect(0, 0, getWidth(), getHeight());
-
-            super.paintComponent(g);
-        }
-
-        public AttributiveCellRenderer() {
-            setOpaque(true);
-        }
-
-        @Override
-        public boolean isOpaque() {
-            return false;
-        }
-
-        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-            setDefaultStyles();
-            if (board.isFlag(row, column)) this.setIcon(flagIcon);
-
-            if (!board.isOpen(row, column)) {
-                if (row == selectedRow && column == selectedCol) background = Color.gray;
-                else background = Color.lightGray;
-                return this;
-            }
-
-            if (board.isMine(row, column)) {
-                background = Color.red;
-                this.setIcon(mineIcon);
-                return this;
-            }
-
-            background = Color.gray;
-            if (board.minesCount(row, column) > 0) {
-                this.setForeground(getColor(board.minesCount(row, column)));
-                this.setText(String.valueOf(board.minesCount(row, column)));
-            }
-
-            return this;
-        }
-
-        private void setDefaultStyles() {
-            this.setText("");
-            this.setIcon(null);
-            this.setForeground(Color.MAGENTA);
-            this.setHorizontalAlignment(JLabel.CENTER);
-            this.setVerticalAlignment(JLabel.CENTER);
-        }
-    }
-
-    private Color getColor(int minesCount) {
-        if (minesCount == 1) return Color.blue;
-        if (minesCount == 2) return Color.green;
-        if (minesCount == 3) return Color.red;
-        if (minesCount == 4) return Color.getColor("06004E");
-        if (minesCount == 5) return Color.getColor("7D0E0E");
-        return Color.getColor("5D5708");
-    }
-
-    @Override
-    public Dimension getPreferredSize() {
-        return new Dimension(cols * cellSize, (int) (rows * cellSize + topPanel.getPreferredSize().getHeight()));
-    }
 }
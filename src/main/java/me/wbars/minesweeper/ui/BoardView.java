@@ -0,0 +1,308 @@
+package me.wbars.minesweeper.ui;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.core.Cell;
+import me.wbars.minesweeper.core.Region;
+import me.wbars.minesweeper.util.IntList;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Board drawn from prerendered {@link Sprites}: a paint blits one image per cell inside the clip and nothing
+ * else, so scrolling a huge board in a {@link JScrollPane} costs only the newly exposed cells.
+ * <p>
+ * Zooming goes through sprite sizes down to {@link #SPRITE_SIZES the smallest one}, then switches to an overview
+ * with a shade per cell and further to a shade per block of cells taken from a {@link BoardMipmap}, so a paint
+ * never touches more cells than there are pixels.
+ */
+public class BoardView extends JComponent implements Scrollable {
+    private static final int VISIBLE_COLS = 40;
+    private static final int VISIBLE_ROWS = 24;
+    private static final int[] SPRITE_SIZES = {60, 45, 30, 24, 18, 12, 8};
+    /**
+     * Pixels per cell of the overview before it starts merging cells into blocks.
+     */
+    private static final int[] MAGNIFICATIONS = {4, 2, 1};
+
+    private final transient IntList exploded = new IntList();
+    private transient Board board;
+    private transient BoardMipmap mipmap;
+    private transient BufferedImage overview;
+    private int zoom;
+    private transient Sprites sprites;
+    private int cellSize;
+    private int level;
+    private int magnification;
+    private int hoveredRow = -1;
+    private int hoveredCol = -1;
+
+    BoardView(Board board, int cellSize) {
+        this.board = board;
+        int zoom = 0;
+        while (zoom < SPRITE_SIZES.length - 1 && SPRITE_SIZES[zoom] > cellSize) zoom++;
+        zoom(zoom);
+        setOpaque(true);
+    }
+
+    void board(Board board) {
+        this.board = board;
+        mipmap = null;
+        exploded.clear();
+        hoveredRow = -1;
+        hoveredCol = -1;
+        zoom(Math.min(zoom, maxZoom()));
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Whether cells are drawn one by one and can be clicked.
+     */
+    boolean detailed() {
+        return sprites != null;
+    }
+
+    /**
+     * Whether the overview merges cells into blocks and has no mipmap to take them from, see
+     * {@link #mipmap(BoardMipmap)}.
+     */
+    boolean needsMipmap() {
+        return !detailed() && level > 0 && mipmap == null;
+    }
+
+    /**
+     * Hands over a mipmap of the current board, built off the EDT.
+     */
+    void mipmap(BoardMipmap mipmap) {
+        this.mipmap = mipmap;
+        if (!detailed()) repaint();
+    }
+
+    /**
+     * @return mipmap of the current board, null till one is handed over
+     */
+    BoardMipmap mipmap() {
+        return mipmap;
+    }
+
+    /**
+     * Zooms in for negative steps and out for positive ones, keeping the centre of the viewport in place.
+     */
+    void zoomBy(int steps) {
+        int next = Math.max(0, Math.min(maxZoom(), zoom + steps));
+        if (next == zoom) return;
+        Container parent = getParent();
+        if (!(parent instanceof JViewport)) {
+            zoom(next);
+            revalidate();
+            repaint();
+            return;
+        }
+        JViewport viewport = (JViewport) parent;
+        Rectangle visible = viewport.getViewRect();
+        double x = visible.getCenterX() / Math.max(1, getWidth());
+        double y = visible.getCenterY() / Math.max(1, getHeight());
+        zoom(next);
+        Dimension size = getPreferredSize();
+        viewport.setViewSize(size);
+        viewport.setViewPosition(new Point(
+                (int) Math.max(0, Math.min(size.width - visible.width, x * size.width - visible.width / 2.0)),
+                (int) Math.max(0, Math.min(size.height - visible.height, y * size.height - visible.height / 2.0))));
+        revalidate();
+        repaint();
+    }
+
+    private void zoom(int zoom) {
+        this.zoom = zoom;
+        hover(-1, -1);
+        if (zoom < SPRITE_SIZES.length) {
+            sprites = Assets.sprites(SPRITE_SIZES[zoom]);
+            cellSize = SPRITE_SIZES[zoom];
+            return;
+        }
+        sprites = null;
+        int overviewZoom = zoom - SPRITE_SIZES.length;
+        level = Math.max(0, overviewZoom - MAGNIFICATIONS.length + 1);
+        magnification = MAGNIFICATIONS[Math.min(overviewZoom, MAGNIFICATIONS.length - 1)];
+    }
+
+    /**
+     * Zoom where the whole board is a single block.
+     */
+    private int maxZoom() {
+        int size = Math.max(board.rows(), board.cols());
+        int levels = 0;
+        while (size > 1 << levels) levels++;
+        return SPRITE_SIZES.length + MAGNIFICATIONS.length - 1 + levels;
+    }
+
+    int rowAt(Point point) {
+        return Math.min(board.rows() - 1, detailed() ? point.y / cellSize : (point.y / magnification) << level);
+    }
+
+    int colAt(Point point) {
+        return Math.min(board.cols() - 1, detailed() ? point.x / cellSize : (point.x / magnification) << level);
+    }
+
+    /**
+     * Highlights a closed cell under the cursor, -1 for none. Moves within a cell or between cells that are not
+     * closed repaint nothing.
+     */
+    void hover(int i, int j) {
+        if (!detailed()) i = j = -1;
+        if (i == hoveredRow && j == hoveredCol) return;
+        if (highlighted(hoveredRow, hoveredCol)) repaintCell(hoveredRow, hoveredCol);
+        hoveredRow = i;
+        hoveredCol = j;
+        if (highlighted(i, j)) repaintCell(i, j);
+    }
+
+    private boolean highlighted(int i, int j) {
+        return i >= 0 && j >= 0 && board.cellState(i, j) == Cell.State.CLOSED;
+    }
+
+    /**
+     * Marks an open mine as the one that ended the game.
+     */
+    void explode(int i, int j) {
+        exploded.add(i * board.cols() + j);
+        repaintCell(i, j);
+    }
+
+    /**
+     * Repaints cells changed on the board. The {@link #mipmap() mipmap} has to be updated with the change before,
+     * off the EDT, to keep the overview current.
+     */
+    void repaint(Region region) {
+        if (region.isEmpty()) return;
+        Point from = pixel(region.top(), region.left());
+        Point to = pixel(region.bottom() + 1, region.right() + 1);
+        repaint(from.x, from.y, to.x - from.x, to.y - from.y);
+    }
+
+    private void repaintCell(int i, int j) {
+        if (i >= 0 && j >= 0) repaint(j * cellSize, i * cellSize, cellSize, cellSize);
+    }
+
+    /**
+     * Top left corner of the cell, rounded up to the next block in the overview.
+     */
+    private Point pixel(int i, int j) {
+        if (detailed()) return new Point(j * cellSize, i * cellSize);
+        int block = (1 << level) - 1;
+        return new Point((j + block >> level) * magnification, (i + block >> level) * magnification);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(getSize());
+        if (detailed()) paintCells(g, clip);
+        else paintOverview(g, clip);
+    }
+
+    private void paintCells(Graphics g, Rectangle clip) {
+        int top = Math.max(0, clip.y / cellSize);
+        int left = Math.max(0, clip.x / cellSize);
+        int bottom = Math.min(board.rows() - 1, (clip.y + clip.height - 1) / cellSize);
+        int right = Math.min(board.cols() - 1, (clip.x + clip.width - 1) / cellSize);
+        for (int i = top; i <= bottom; i++) {
+            for (int j = left; j <= right; j++) {
+                g.drawImage(sprites.get(sprite(i, j)), j * cellSize, i * cellSize, null);
+            }
+        }
+        if (hoveredRow >= top && hoveredRow <= bottom && hoveredCol >= left && hoveredCol <= right
+                && highlighted(hoveredRow, hoveredCol)) {
+            g.drawImage(sprites.get(Sprites.HOVERED), hoveredCol * cellSize, hoveredRow * cellSize, null);
+        }
+    }
+
+    /**
+     * Shades of the visible blocks go to a reusable grey image drawn scaled by the magnification. Till the mipmap
+     * is ready a block takes the shade of its top left cell.
+     */
+    private void paintOverview(Graphics g, Rectangle clip) {
+        int block = (1 << level) - 1;
+        int top = Math.max(0, clip.y / magnification);
+        int left = Math.max(0, clip.x / magnification);
+        int bottom = Math.min((board.rows() + block >> level) - 1, (clip.y + clip.height - 1) / magnification);
+        int right = Math.min((board.cols() + block >> level) - 1, (clip.x + clip.width - 1) / magnification);
+        int width = right - left + 1;
+        int height = bottom - top + 1;
+        if (width <= 0 || height <= 0) return;
+        if (overview == null || overview.getWidth() < width || overview.getHeight() < height) {
+            overview = new BufferedImage(Math.max(width, overview == null ? 0 : overview.getWidth()),
+                    Math.max(height, overview == null ? 0 : overview.getHeight()), BufferedImage.TYPE_BYTE_GRAY);
+        }
+        byte[] pixels = ((DataBufferByte) overview.getRaster().getDataBuffer()).getData();
+        int stride = overview.getWidth();
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                pixels[i * stride + j] = (byte) (mipmap == null
+                        ? BoardMipmap.shade(board, top + i << level, left + j << level)
+                        : mipmap.shade(level, top + i, left + j));
+            }
+        }
+        g.drawImage(overview, left * magnification, top * magnification, (right + 1) * magnification,
+                (bottom + 1) * magnification, 0, 0, width, height, null);
+    }
+
+    private int sprite(int i, int j) {
+        switch (board.cellState(i, j)) {
+            case FLAG:
+                return Sprites.FLAG;
+            case CLOSED:
+                return Sprites.CLOSED;
+            default:
+                if (!board.isMine(i, j)) return Sprites.OPEN + board.minesCount(i, j);
+                return isExploded(i * board.cols() + j) ? Sprites.EXPLODED : Sprites.MINE;
+        }
+    }
+
+    private boolean isExploded(int index) {
+        for (int k = 0; k < exploded.size(); k++) {
+            if (exploded.get(k) == index) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (detailed()) return new Dimension(board.cols() * cellSize, board.rows() * cellSize);
+        int block = (1 << level) - 1;
+        return new Dimension((board.cols() + block >> level) * magnification,
+                (board.rows() + block >> level) * magnification);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, VISIBLE_COLS * SPRITE_SIZES[2]),
+                Math.min(size.height, VISIBLE_ROWS * SPRITE_SIZES[2]));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return detailed() ? cellSize : magnification;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        int unit = getScrollableUnitIncrement(visibleRect, orientation, direction);
+        return Math.max(unit, extent - unit);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package me.wbars.minesweeper.ui;
+
+import javax.swing.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Game time in tenths of a second, shown on a counter. Instead of polling, the clock wakes up only when the
+ * counter is about to change. While paused, e.g. with the counter hidden, it doesn't wake up at all: the time still
+ * counts and shows once the clock is resumed.
+ */
+class GameClock {
+    static final long TICK = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MyCounter counter;
+    private final LongSupplier nanoTime;
+    private final Timer timer = new Timer(0, e -> show());
+    private boolean started;
+    private boolean running;
+    private boolean paused;
+    private long start;
+    private long elapsed;
+
+    GameClock(MyCounter counter) {
+        this(counter, System::nanoTime);
+    }
+
+    GameClock(MyCounter counter, LongSupplier nanoTime) {
+        this.counter = counter;
+        this.nanoTime = nanoTime;
+        timer.setRepeats(false);
+        counter.setValue(0);
+    }
+
+    /**
+     * Starts the clock unless it has been started since the last {@link #reset()}.
+     */
+    void start() {
+        if (started) return;
+        started = true;
+        running = true;
+        start = nanoTime.getAsLong();
+        show();
+    }
+
+    void stop() {
+        if (!running) return;
+        elapsed = nanoTime.getAsLong() - start;
+        running = false;
+        timer.stop();
+        show();
+    }
+
+    void reset() {
+        started = false;
+        running = false;
+        elapsed = 0;
+        timer.stop();
+        show();
+    }
+
+    void pause(boolean paused) {
+        if (this.paused == paused) return;
+        this.paused = paused;
+        if (paused) timer.stop();
+        else show();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long elapsed() {
+        return running ? nanoTime.getAsLong() - start : elapsed;
+    }
+
+    private void show() {
+        long elapsed = elapsed();
+        counter.setValue((int) (elapsed / TICK) / 10f);
+        if (!running || paused) return;
+        timer.setInitialDelay(delay(elapsed));
+        timer.restart();
+    }
+
+    /**
+     * @return milliseconds from {@code elapsed} nanoseconds to the next tick, rounded up so as not to wake up early
+     */
+    static int delay(long elapsed) {
+        long next = (elapsed / TICK + 1) * TICK;
+        return (int) TimeUnit.NANOSECONDS.toMillis(next - elapsed + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+}
@@ -3,53 +3,62 @@ package me.wbars.minesweeper.ui;
 import javax.swing.*;
 import javax.swing.border.Border;
 import java.awt.*;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
-import static java.util.Arrays.asList;
+import java.awt.image.BufferedImage;
 
 /**
- * Works only with positive numbers < 100
+ * Seven-segment display of a non-negative number with a fixed count of integer digits and one decimal digit
+ * shown when the number has a fractional part. Numbers past the last digit show as all nines.
+ * <p>
+ * Digits are prerendered once for the whole process, so a repaint is a few {@code drawImage} calls, and setting
+ * a value that shows the same repaints nothing.
  */
 public class MyCounter extends JPanel {
     private static final int LINE_LENGTH = 10;
     private static final Color COLOR = Color.red;
+    private static final Color DIMMED_COLOR = Color.decode("#492105");
     private static final Color BACKGROUND_COLOR = Color.black;
     private static final int SPACE_SIZE = 4;
     private static final int DOT_SIZE = 3;
     private static final int BORDER_WIDTH = 4;
     private static final int INITIAL_OFFSET = 3;
     private static final int STROKE = 3;
-
-    private float value;
-    private int xOffset = INITIAL_OFFSET + BORDER_WIDTH + SPACE_SIZE;
-    private int yOffset = INITIAL_OFFSET + BORDER_WIDTH + SPACE_SIZE;
-
-    private static final Map<Integer, Set<Integer>> activeLines = new HashMap<>();
-
-    static {
-        activeLines.put(0, new HashSet<>(asList(1, 2, 3, 4, 5, 6)));
-        activeLines.put(1, new HashSet<>(asList(2, 3)));
-        activeLines.put(2, new HashSet<>(asList(1, 2, 4, 5, 7)));
-        activeLines.put(3, new HashSet<>(asList(1, 2, 3, 4, 7)));
-        activeLines.put(4, new HashSet<>(asList(2, 3, 6, 7)));
-        activeLines.put(5, new HashSet<>(asList(1, 3, 4, 6, 7)));
-        activeLines.put(6, new HashSet<>(asList(1, 3, 4, 5, 6, 7)));
-        activeLines.put(7, new HashSet<>(asList(1, 2, 3)));
-        activeLines.put(8, new HashSet<>(asList(1, 2, 3, 4, 5, 6, 7)));
-        activeLines.put(9, new HashSet<>(asList(1, 2, 3, 4, 6, 7)));
+    private static final int DEFAULT_DIGITS = 3;
+
+    private static final Border BORDER = BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(Color.gray, BORDER_WIDTH),
+            BorderFactory.createLineBorder(Color.darkGray, BORDER_WIDTH));
+
+    /**
+     * Lit segments of every digit: bit 0 top, then clockwise upper right, lower right, bottom, lower left, upper
+     * left, and bit 6 the middle.
+     */
+    private static final int[] SEGMENTS = {0x3F, 0x06, 0x5B, 0x4F, 0x66, 0x6D, 0x7D, 0x07, 0x7F, 0x6F};
+    private static BufferedImage[] glyphs;
+
+    private final int digits;
+    private final int max;
+    /**
+     * Shown value in tenths.
+     */
+    private int tenths;
+
+    public MyCounter() {
+        this(DEFAULT_DIGITS);
     }
 
-    private static int firstDigit(int x) {
-        while (x > 9) x /= 10;
-        return x;
+    public MyCounter(int digits) {
+        if (digits <= 0 || digits > 9) throw new IllegalArgumentException("Digits: " + digits);
+        this.digits = digits;
+        int max = 1;
+        for (int d = 0; d < digits; d++) max *= 10;
+        this.max = max - 1;
     }
 
     public void setValue(float value) {
-        if (value < 0 || value >= 100) throw new IllegalArgumentException();
-        this.value = value;
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        int tenths = value >= max + 1 ? max * 10 : (int) (value * 10);
+        if (tenths == this.tenths) return;
+        this.tenths = tenths;
         repaint();
     }
 
@@ -60,89 +69,63 @@ public class MyCounter extends JPanel {
 
     @Override
     public Border getBorder() {
-        Border outer = BorderFactory.createLineBorder(Color.gray, BORDER_WIDTH);
-        Border inner = BorderFactory.createLineBorder(Color.darkGray, BORDER_WIDTH);
-        return BorderFactory.createCompoundBorder(outer, inner);
+        return BORDER;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-
-        xOffset = INITIAL_OFFSET + BORDER_WIDTH + SPACE_SIZE;
-        int intPart = (int) this.value;
-        Graphics2D g2d = (Graphics2D) g.create();
-        paintDigit(intPart / 10, g2d);
-        paintDigit(intPart % 10, g2d);
-
-        if (value != Math.round(value)) {
-            normalStroke(g2d);
-            paintDot(g2d);
-            paintDigit(firstDigit((int) (value % 1 * 10)), g2d);
+        BufferedImage[] glyphs = glyphs();
+        int x = INITIAL_OFFSET + BORDER_WIDTH + SPACE_SIZE - STROKE / 2;
+        int y = INITIAL_OFFSET + BORDER_WIDTH + SPACE_SIZE - STROKE / 2;
+        int whole = tenths / 10;
+        for (int divisor = (max + 1) / 10; divisor > 0; divisor /= 10) {
+            g.drawImage(glyphs[whole / divisor % 10], x, y, null);
+            x += LINE_LENGTH + SPACE_SIZE;
         }
-
-        g2d.dispose();
-    }
-
-    private void normalStroke(Graphics2D g2d) {
-        g2d.setStroke(new BasicStroke(STROKE, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL));
-        g2d.setColor(COLOR);
-    }
-
-    private void paintDot(Graphics2D g2d) {
-        g2d.fillRect(xOffset, LINE_LENGTH * 2 + yOffset - DOT_SIZE, DOT_SIZE, DOT_SIZE);
-        xOffset += DOT_SIZE + SPACE_SIZE;
-    }
-
-    private void paintDigit(int number, Graphics2D g2d) {
-        int lineCounter = 1;
-        Set<Integer> activeLines = MyCounter.activeLines.get(number);
-        if (activeLines == null) throw new IllegalStateException();
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        lineCounter++;
-        g2d.drawLine(xOffset, yOffset, xOffset + LINE_LENGTH, yOffset);
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        lineCounter++;
-        g2d.drawLine(xOffset + LINE_LENGTH, yOffset, xOffset + LINE_LENGTH, LINE_LENGTH + yOffset);
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        lineCounter++;
-        g2d.drawLine(xOffset + LINE_LENGTH, LINE_LENGTH + yOffset, xOffset + LINE_LENGTH, LINE_LENGTH * 2 + yOffset);
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        lineCounter++;
-        g2d.drawLine(xOffset + LINE_LENGTH, LINE_LENGTH * 2 + yOffset, xOffset, LINE_LENGTH * 2 + yOffset);
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        lineCounter++;
-        g2d.drawLine(xOffset, LINE_LENGTH * 2 + yOffset, xOffset, LINE_LENGTH + yOffset);
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        lineCounter++;
-        g2d.drawLine(xOffset, LINE_LENGTH + yOffset, xOffset, yOffset);
-
-        chooseStroke(g2d, lineCounter, activeLines);
-        g2d.drawLine(xOffset, LINE_LENGTH + yOffset, xOffset + LINE_LENGTH, LINE_LENGTH + yOffset);
-
-        xOffset += LINE_LENGTH + SPACE_SIZE;
+        if (tenths % 10 == 0) return;
+        g.setColor(COLOR);
+        g.fillRect(x + STROKE / 2, y + STROKE / 2 + LINE_LENGTH * 2 - DOT_SIZE, DOT_SIZE, DOT_SIZE);
+        g.drawImage(glyphs[tenths % 10], x + DOT_SIZE + SPACE_SIZE, y, null);
     }
 
-    private void chooseStroke(Graphics2D g2d, int lineCounter, Set<Integer> activeLines) {
-        if (activeLines.contains(lineCounter)) normalStroke(g2d);
-        else dashedStroke(g2d);
+    private static synchronized BufferedImage[] glyphs() {
+        if (glyphs != null) return glyphs;
+        glyphs = new BufferedImage[SEGMENTS.length];
+        for (int digit = 0; digit < SEGMENTS.length; digit++) glyphs[digit] = glyph(SEGMENTS[digit]);
+        return glyphs;
     }
 
-    private void dashedStroke(Graphics2D g2d) {
-        Stroke dashed = new BasicStroke(STROKE, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{2, 2}, 0);
-        g2d.setStroke(dashed);
-        g2d.setColor(Color.decode("#492105"));
+    private static BufferedImage glyph(int segments) {
+        BufferedImage image = Assets.compatibleImage(LINE_LENGTH + STROKE, LINE_LENGTH * 2 + STROKE,
+                Transparency.TRANSLUCENT);
+        Graphics2D g = image.createGraphics();
+        g.translate(STROKE / 2, STROKE / 2);
+        Stroke lit = new BasicStroke(STROKE, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL);
+        Stroke dimmed = new BasicStroke(STROKE, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{2, 2}, 0);
+        int[][] lines = {
+                {0, 0, LINE_LENGTH, 0},
+                {LINE_LENGTH, 0, LINE_LENGTH, LINE_LENGTH},
+                {LINE_LENGTH, LINE_LENGTH, LINE_LENGTH, LINE_LENGTH * 2},
+                {LINE_LENGTH, LINE_LENGTH * 2, 0, LINE_LENGTH * 2},
+                {0, LINE_LENGTH * 2, 0, LINE_LENGTH},
+                {0, LINE_LENGTH, 0, 0},
+                {0, LINE_LENGTH, LINE_LENGTH, LINE_LENGTH}
+        };
+        for (int segment = 0; segment < lines.length; segment++) {
+            boolean on = (segments & 1 << segment) != 0;
+            g.setStroke(on ? lit : dimmed);
+            g.setColor(on ? COLOR : DIMMED_COLOR);
+            g.drawLine(lines[segment][0], lines[segment][1], lines[segment][2], lines[segment][3]);
+        }
+        g.dispose();
+        return image;
     }
 
     @Override
     public Dimension getPreferredSize() {
-        return new Dimension(LINE_LENGTH * 3 + DOT_SIZE + SPACE_SIZE * 4 + BORDER_WIDTH * 4, LINE_LENGTH * 2 + SPACE_SIZE * 2 + BORDER_WIDTH * 4);
+        return new Dimension(LINE_LENGTH * (digits + 1) + DOT_SIZE + SPACE_SIZE * (digits + 2) + BORDER_WIDTH * 4,
+                LINE_LENGTH * 2 + SPACE_SIZE * 2 + BORDER_WIDTH * 4);
     }
 
     @Override
@@ -0,0 +1,72 @@
+package me.wbars.minesweeper.ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Cell images for one cell size, rendered once so that painting a cell is a single {@code drawImage}. Shared
+ * through {@link Assets#sprites(int)}.
+ */
+class Sprites {
+    static final int CLOSED = 0;
+    /**
+     * Highlight drawn over the closed cell under the cursor.
+     */
+    static final int HOVERED = 1;
+    static final int FLAG = 2;
+    static final int MINE = 3;
+    static final int EXPLODED = 4;
+    /**
+     * Open cell with no mines around, {@code OPEN + n} for n mines around.
+     */
+    static final int OPEN = 5;
+
+    private static final Color[] NUMBER_COLORS = {
+            null, Color.blue, Color.green, Color.red, Color.decode("#06004E"), Color.decode("#7D0E0E"),
+            Color.decode("#5D5708"), Color.decode("#5D5708"), Color.decode("#5D5708")
+    };
+
+    private final int cellSize;
+    private final BufferedImage[] images = new BufferedImage[OPEN + 9];
+
+    Sprites(int cellSize, Image flag, Image mine) {
+        this.cellSize = cellSize;
+        images[CLOSED] = tile(Color.lightGray, null, 0);
+        images[HOVERED] = tile(Color.gray, null, 0);
+        images[FLAG] = tile(Color.lightGray, flag, 0);
+        images[MINE] = tile(Color.gray, mine, 0);
+        images[EXPLODED] = tile(Color.red, mine, 0);
+        for (int n = 0; n <= 8; n++) images[OPEN + n] = tile(Color.gray, null, n);
+    }
+
+    int cellSize() {
+        return cellSize;
+    }
+
+    BufferedImage get(int sprite) {
+        return images[sprite];
+    }
+
+    private BufferedImage tile(Color background, Image icon, int minesCount) {
+        BufferedImage image = Assets.compatibleImage(cellSize, cellSize, Transparency.OPAQUE);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, background.brighter(), 0, cellSize, background));
+        g.fillRect(0, 0, cellSize, cellSize);
+        if (icon != null) g.drawImage(icon, 0, 0, cellSize, cellSize, null);
+        if (minesCount > 0) {
+            String text = String.valueOf(minesCount);
+            g.setColor(NUMBER_COLORS[minesCount]);
+            g.setFont(g.getFont().deriveFont(Font.BOLD, cellSize * 0.5f));
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(text, (cellSize - metrics.stringWidth(text)) / 2,
+                    (cellSize - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+        g.setColor(Color.black);
+        g.drawLine(cellSize - 1, 0, cellSize - 1, cellSize - 1);
+        g.drawLine(0, cellSize - 1, cellSize - 1, cellSize - 1);
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,57 @@
+package me.wbars.minesweeper.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of primitive ints on a growable ring buffer. Keeps its capacity after {@link #clear()}
+ * so it can be reused without allocating.
+ */
+public class IntQueue {
+    private int[] elements;
+    private int head;
+    private int size;
+
+    public IntQueue() {
+        this(16);
+    }
+
+    public IntQueue(int initialCapacity) {
+        elements = new int[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int value) {
+        if (size == elements.length) grow();
+        elements[(head + size) % elements.length] = value;
+        size++;
+    }
+
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException();
+        int value = elements[head];
+        head = (head + 1) % elements.length;
+        size--;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int[] grown = new int[elements.length * 2];
+        int tail = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, tail);
+        System.arraycopy(elements, 0, grown, tail, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package me.wbars.minesweeper.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hash map from primitive long keys to non-null values, with open addressing so lookups do not box keys.
+ */
+public class LongObjectMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongObjectMap() {
+        keys = new long[16];
+        values = new Object[16];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int slot = slot(key, keys.length); values[slot] != null; slot = (slot + 1) & keys.length - 1) {
+            if (keys[slot] == key) return (V) values[slot];
+        }
+        return null;
+    }
+
+    public void put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("Null value for key " + key);
+        if ((size + 1) * 4 > keys.length * 3) resize();
+        int slot = slot(key, keys.length);
+        while (values[slot] != null && keys[slot] != key) slot = (slot + 1) & keys.length - 1;
+        if (values[slot] == null) size++;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) result.add((V) value);
+        }
+        return result;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldValues[k] == null) continue;
+            int slot = slot(oldKeys[k], keys.length);
+            while (values[slot] != null) slot = (slot + 1) & keys.length - 1;
+            keys[slot] = oldKeys[k];
+            values[slot] = oldValues[k];
+        }
+    }
+
+    private static int slot(long key, int capacity) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & capacity - 1;
+    }
+}
@@ -0,0 +1,57 @@
+package me.wbars.minesweeper.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of primitive longs on a growable ring buffer. Keeps its capacity after {@link #clear()}
+ * so it can be reused without allocating.
+ */
+public class LongQueue {
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongQueue() {
+        this(16);
+    }
+
+    public LongQueue(int initialCapacity) {
+        elements = new long[Math.max(1, initialCapacity)];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) grow();
+        elements[(head + size) % elements.length] = value;
+        size++;
+    }
+
+    public long poll() {
+        if (size == 0) throw new NoSuchElementException();
+        long value = elements[head];
+        head = (head + 1) % elements.length;
+        size--;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length * 2];
+        int tail = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, tail);
+        System.arraycopy(elements, 0, grown, tail, head);
+        elements = grown;
+        head = 0;
+    }
+}
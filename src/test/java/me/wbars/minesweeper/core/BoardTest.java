@@ -1,18 +1,33 @@
 package me.wbars.minesweeper.core;
 
 import me.wbars.minesweeper.util.Pair;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static java.util.Arrays.asList;
 import static me.wbars.minesweeper.core.Cell.State.CLOSED;
 import static me.wbars.minesweeper.core.Cell.State.OPEN;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
 public class BoardTest {
+    private static final long SEEDED_FINGERPRINT = -1014966347631158609L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void boardSize() throws Exception {
         Board board = Board.create(5, 4, 3);
@@ -148,4 +163,504 @@ public class BoardTest {
         assertThat(minesCount, is(3));
         assertThat(board.isMine(0, 1), is(false));
     }
+
+    @Test
+    public void storageTypesBehaveTheSame() throws Exception {
+        Board packed = Board.create(6, 5, 0, Board.StorageType.PACKED);
+        Board objects = Board.create(6, 5, 0, Board.StorageType.OBJECTS);
+        for (Board board : asList(packed, objects)) {
+            board.plantMine(new Pair<>(1, 1));
+            board.plantMine(new Pair<>(3, 4));
+            board.open(4, 0);
+            board.toggleFlag(1, 1);
+        }
+
+        assertThat(packed.toString(), is(objects.toString()));
+        for (int i = 0; i < packed.rows(); i++) {
+            for (int j = 0; j < packed.cols(); j++) {
+                assertThat(packed.cellState(i, j), is(objects.cellState(i, j)));
+                assertThat(packed.isMine(i, j), is(objects.isMine(i, j)));
+                assertThat(packed.minesCount(i, j), is(objects.minesCount(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void openReportsOpenedCellsCount() throws Exception {
+        Board board = Board.create(4, 4, 0);
+        board.plantMine(new Pair<>(2, 1));
+
+        assertThat(board.open(0, 0), is(12));
+        assertThat(board.open(3, 0), is(1));
+    }
+
+    @Test
+    public void largeCascadeOpensWholeBoard() throws Exception {
+        Board board = Board.create(1000, 1000, 0);
+        assertThat(board.open(500, 500), is(1000 * 1000));
+    }
+
+    @Test
+    public void statusLostAfterOpeningMine() throws Exception {
+        Board board = Board.create(3, 3, 0);
+        board.plantMine(new Pair<>(1, 1));
+        board.open(0, 0);
+        assertThat(board.status(), is(Board.Status.PLAYING));
+
+        board.open(1, 1);
+        assertThat(board.status(), is(Board.Status.LOST));
+    }
+
+    @Test
+    public void statusWonAfterOpeningAllSafeCells() throws Exception {
+        Board board = Board.create(3, 1, 0);
+        board.plantMine(new Pair<>(0, 1));
+        board.open(0, 0);
+        assertThat(board.status(), is(Board.Status.PLAYING));
+
+        board.open(0, 2);
+        assertThat(board.status(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void wrongFlagPreventsWin() throws Exception {
+        Board board = Board.create(3, 3, 0);
+        board.plantMine(new Pair<>(1, 1));
+        board.open(0, 0);
+        board.toggleFlag(1, 1);
+        board.toggleFlag(2, 2);
+        assertThat(board.isWin(), is(false));
+
+        board.toggleFlag(2, 2);
+        assertThat(board.isWin(), is(true));
+        assertThat(board.status(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void sameSeedGivesSameLayout() throws Exception {
+        Board first = Board.create(30, 16, 99, 42L);
+        Board second = Board.create(30, 16, 99, 42L);
+        first.open(7, 7);
+        second.open(7, 7);
+        for (int i = 0; i < first.rows(); i++) {
+            for (int j = 0; j < first.cols(); j++) {
+                assertThat(first.isMine(i, j), is(second.isMine(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void safeNeighbourhoodHasNoMines() throws Exception {
+        for (long seed = 0; seed < 20; seed++) {
+            Board board = Board.create(5, 5, 16, seed);
+            board.safeNeighbourhood(true);
+            board.open(1, 1);
+            assertThat(board.minesCount(1, 1), is(0));
+            assertThat(board.isMine(1, 1), is(false));
+            assertThat(mines(board), is(16));
+        }
+    }
+
+    @Test
+    public void safeNeighbourhoodIgnoredWhenNoRoom() throws Exception {
+        Board board = Board.create(3, 3, 8, 1L);
+        board.safeNeighbourhood(true);
+        board.open(1, 1);
+        assertThat(board.isMine(1, 1), is(false));
+        assertThat(mines(board), is(8));
+    }
+
+    @Test
+    public void sparseMinesOnLargeBoard() throws Exception {
+        Board board = Board.create(4000, 4000, 160_000, 7L);
+        board.open(0, 0);
+        assertThat(mines(board), is(160_000));
+    }
+
+    private int mines(Board board) {
+        int mines = 0;
+        for (int i = 0; i < board.rows(); i++) {
+            for (int j = 0; j < board.cols(); j++) {
+                if (board.isMine(i, j)) mines++;
+            }
+        }
+        return mines;
+    }
+
+    @Test
+    public void seededBoardWithFirstClick() throws Exception {
+        Board board = Board.create(30, 16, 99, 42L, new Pair<>(3, 4));
+        assertThat(mines(board), is(99));
+        assertThat(board.isMine(3, 4), is(false));
+        assertThat(board.cellState(3, 4), is(CLOSED));
+
+        board.open(3, 4);
+        assertThat(mines(board), is(99));
+    }
+
+    /**
+     * Pins the layout produced by a seed, so any change in mine placement shows up here.
+     */
+    @Test
+    public void seededLayoutIsStable() throws Exception {
+        Board board = Board.create(9, 9, 10, 2017L, new Pair<>(4, 4));
+        assertThat(board.fingerprint(), is(Board.create(9, 9, 10, 2017L, new Pair<>(4, 4)).fingerprint()));
+        assertThat(board.fingerprint(), is(SEEDED_FINGERPRINT));
+    }
+
+    @Test
+    public void fingerprintDependsOnLayout() throws Exception {
+        Board first = Board.create(9, 9, 10, 1L, new Pair<>(4, 4));
+        Board second = Board.create(9, 9, 10, 2L, new Pair<>(4, 4));
+        Board transposed = Board.create(9, 9, 0);
+        Board other = Board.create(9, 9, 0);
+        transposed.plantMine(new Pair<>(0, 1));
+        other.plantMine(new Pair<>(1, 0));
+
+        assertThat(first.fingerprint() == second.fingerprint(), is(false));
+        assertThat(transposed.fingerprint() == other.fingerprint(), is(false));
+        assertThat(Board.create(9, 9, 0).fingerprint() == Board.create(3, 27, 0).fingerprint(), is(false));
+    }
+
+    @Test
+    public void resetStartsNewGame() throws Exception {
+        Board board = Board.create(30, 16, 99, 1L);
+        board.open(8, 8);
+        board.toggleFlag(0, 0);
+
+        board.reset(2L);
+        assertThat(board.seed(), is(2L));
+        assertThat(board.status(), is(Board.Status.PLAYING));
+        assertThat(board.toString(), is(Board.create(30, 16, 99).toString()));
+
+        board.open(8, 8);
+        Board fresh = Board.create(30, 16, 99, 2L);
+        fresh.open(8, 8);
+        assertThat(board.fingerprint(), is(fresh.fingerprint()));
+        assertThat(board.toString(), is(fresh.toString()));
+    }
+
+    @Test
+    public void failedToggleFlagKeepsHistory() throws Exception {
+        Board board = Board.create(9, 9, 10, 1L);
+        board.history(true);
+        board.open(4, 4);
+        board.reveal(false);
+        String revealed = board.toString();
+        board.undo();
+        String opened = board.toString();
+
+        boolean rejected = false;
+        try {
+            board.toggleFlag(4, 4);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assertThat(rejected, is(true));
+        assertThat(board.redo(), is(true));
+        assertThat(board.toString(), is(revealed));
+        assertThat(board.undo(), is(true));
+        assertThat(board.toString(), is(opened));
+        assertThat(board.undo(), is(true));
+        assertThat(board.undo(), is(false));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void toggleFlagChecksIndexes() throws Exception {
+        Board.create(3, 3, 0).toggleFlag(0, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void minesCountChecksIndexes() throws Exception {
+        Board board = Board.create(3, 3, 1, 1L);
+        board.open(0, 0);
+        board.minesCount(1, -1);
+    }
+
+    @Test
+    public void mappedBoardPlaysLikeHeapBoard() throws Exception {
+        Board heap = Board.create(30, 16, 99, 5L);
+        Board mapped = Board.map(folder.newFile().toPath(), 30, 16, 99, 5L);
+        for (Board board : asList(heap, mapped)) {
+            board.open(8, 8);
+            board.toggleFlag(0, 0);
+        }
+
+        assertThat(mapped.toString(), is(heap.toString()));
+        assertThat(mapped.fingerprint(), is(heap.fingerprint()));
+        assertThat(mapped.status(), is(heap.status()));
+    }
+
+    @Test
+    public void mappedBoardReopensWhereItStopped() throws Exception {
+        Path file = folder.newFile().toPath();
+        Board board = Board.map(file, 30, 16, 99, 5L);
+        board.safeNeighbourhood(true);
+        board.open(8, 8);
+        board.toggleFlag(0, 0);
+        board.force();
+
+        Board reopened = Board.map(file);
+        assertThat(reopened.cols(), is(30));
+        assertThat(reopened.rows(), is(16));
+        assertThat(reopened.minesCount(), is(99));
+        assertThat(reopened.seed(), is(5L));
+        assertThat(reopened.safeNeighbourhood(), is(true));
+        assertThat(reopened.toString(), is(board.toString()));
+        assertThat(reopened.fingerprint(), is(board.fingerprint()));
+        assertThat(reopened.isWin(), is(board.isWin()));
+
+        reopened.reveal(true);
+        assertThat(Board.map(file).toString(), is(reopened.toString()));
+    }
+
+    @Test
+    public void mappedBoardKilledInMoveRecounts() throws Exception {
+        Path file = folder.newFile().toPath();
+        Board board = Board.map(file, 30, 16, 99, 5L);
+        board.open(8, 8);
+        board.toggleFlag(0, 0);
+        MappedCellStorage stale = MappedCellStorage.open(file);
+        stale.dirty();
+        stale.header(stale.flags() & ~MappedCellStorage.INIT, 5L, 0, 0, 0, 0, 0);
+
+        Board reopened = Board.map(file);
+        assertThat(reopened.fingerprint(), is(board.fingerprint()));
+        assertThat(reopened.isWin(), is(board.isWin()));
+        for (int i = 0; i < reopened.rows(); i++) {
+            for (int j = 0; j < reopened.cols(); j++) {
+                if (!reopened.isMine(i, j) && !reopened.isOpen(i, j)) reopened.open(i, j);
+            }
+        }
+        assertThat(reopened.status(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void mappedBoardStaysDirtyThroughFirstCascade() throws Exception {
+        Path file = folder.newFile().toPath();
+        Board board = Board.map(file, 2000, 2000, 10, 5L);
+        MappedCellStorage header = MappedCellStorage.open(file);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger dirty = new AtomicInteger();
+        AtomicInteger stale = new AtomicInteger();
+        Thread sampler = new Thread(() -> {
+            started.countDown();
+            while (!done.get()) {
+                int flags = header.flags();
+                if ((flags & MappedCellStorage.DIRTY) != 0) {
+                    dirty.incrementAndGet();
+                } else if ((flags & MappedCellStorage.INIT) != 0 && header.openedSafeCells() == 0) {
+                    stale.incrementAndGet();
+                }
+            }
+        });
+        sampler.start();
+        started.await();
+        board.open(1000, 1000);
+        done.set(true);
+        sampler.join();
+
+        assertThat(stale.get(), is(0));
+        assertThat(dirty.get() > 0, is(true));
+    }
+
+    @Test
+    public void mappedBoardKilledPlantingMineRecountsNeighbours() throws Exception {
+        Path file = folder.newFile().toPath();
+        Board board = Board.map(file, 30, 16, 99, 5L);
+        board.open(8, 8);
+        String position = board.toString();
+        int index = 0;
+        while (!board.isMine(index / 30, index % 30)) index++;
+        int neighbour = index % 30 == 29 ? index - 1 : index + 1;
+        int count = board.minesCount(neighbour / 30, neighbour % 30);
+        MappedCellStorage stale = MappedCellStorage.open(file);
+        stale.dirty();
+        stale.minesCount(neighbour, 0);
+
+        Board reopened = Board.map(file);
+        assertThat(reopened.minesCount(neighbour / 30, neighbour % 30), is(count));
+        assertThat(reopened.toString(), is(position));
+    }
+
+    @Test(expected = IOException.class)
+    public void mappedBoardKilledPlacingMinesIsRejected() throws Exception {
+        Path file = folder.newFile().toPath();
+        Board.map(file, 30, 16, 99, 5L);
+        MappedCellStorage stale = MappedCellStorage.open(file);
+        stale.dirty();
+        stale.plantMine(0);
+        Board.map(file);
+    }
+
+    @Test
+    public void savedBoardLoadsBack() throws Exception {
+        Board board = Board.create(30, 16, 99, 5L);
+        board.open(8, 8);
+        board.toggleFlag(0, 0);
+        board.toggleFlag(15, 29);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        board.save(out);
+        assertThat(out.size(), is(45 + 30 * 16 / 8 + 30 * 16 / 4));
+
+        Board loaded = Board.load(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(loaded.seed(), is(5L));
+        assertThat(loaded.minesCount(), is(99));
+        assertThat(loaded.toString(), is(board.toString()));
+        assertThat(loaded.fingerprint(), is(board.fingerprint()));
+        assertThat(loaded.status(), is(board.status()));
+        assertThat(loaded.isWin(), is(board.isWin()));
+        for (int i = 0; i < board.rows(); i++) {
+            for (int j = 0; j < board.cols(); j++) {
+                assertThat(loaded.isMine(i, j), is(board.isMine(i, j)));
+                assertThat(loaded.minesCount(i, j), is(board.minesCount(i, j)));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void loadRejectsCorruptedSnapshot() throws Exception {
+        Board board = Board.create(9, 9, 10, 5L);
+        board.open(4, 4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        board.save(out);
+        byte[] bytes = out.toByteArray();
+        bytes[bytes.length - 1] ^= 1;
+
+        Board.load(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void undoAndRedoMoves() throws Exception {
+        Board board = Board.create(30, 16, 99, 5L);
+        board.history(true);
+        board.toggleFlag(8, 8);
+        String flagged = board.toString();
+        board.open(8, 8);
+        String opened = board.toString();
+        board.toggleFlag(0, 0);
+
+        assertThat(board.undo(), is(true));
+        assertThat(board.toString(), is(opened));
+        assertThat(board.undo(), is(true));
+        assertThat(board.toString(), is(flagged));
+        assertThat(board.redo(), is(true));
+        assertThat(board.toString(), is(opened));
+        assertThat(board.undo(), is(true));
+        assertThat(board.undo(), is(true));
+        assertThat(board.undo(), is(false));
+        assertThat(board.toString(), is(Board.create(30, 16, 99).toString()));
+
+        assertThat(board.redo(), is(true));
+        assertThat(board.redo(), is(true));
+        assertThat(board.toString(), is(opened));
+        board.toggleFlag(15, 29);
+        assertThat(board.redo(), is(false));
+    }
+
+    @Test
+    public void undoRestoresStatus() throws Exception {
+        Board board = Board.create(3, 3, 0);
+        board.history(true);
+        board.plantMine(new Pair<>(1, 1));
+        board.open(0, 0);
+        board.open(1, 1);
+        assertThat(board.status(), is(Board.Status.LOST));
+
+        board.undo();
+        assertThat(board.status(), is(Board.Status.PLAYING));
+        assertThat(board.isOpen(1, 1), is(false));
+        board.toggleFlag(1, 1);
+        assertThat(board.isWin(), is(true));
+        board.undo();
+        board.redo();
+        assertThat(board.status(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void undoLargeCascade() throws Exception {
+        Board board = Board.create(1000, 1000, 0);
+        board.history(true);
+        assertThat(board.open(500, 500), is(1000 * 1000));
+        board.undo();
+        assertThat(board.isOpen(500, 500), is(false));
+        assertThat(board.isOpen(0, 0), is(false));
+        board.redo();
+        assertThat(board.status(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void parallelFillOpensSameCells() throws Exception {
+        Board sequential = Board.create(700, 600, 1500, 42L);
+        Board parallel = Board.create(700, 600, 1500, 42L);
+        parallel.fillMode(Board.FillMode.PARALLEL);
+        parallel.history(true);
+
+        int opened = sequential.open(300, 350);
+        assertThat(opened > FloodFill.PARALLEL_THRESHOLD, is(true));
+        assertThat(parallel.open(300, 350), is(opened));
+        assertThat(parallel.changed().toString(), is(sequential.changed().toString()));
+        for (int i = 0; i < sequential.rows(); i++) {
+            for (int j = 0; j < sequential.cols(); j++) {
+                assertThat(parallel.cellState(i, j), is(sequential.cellState(i, j)));
+            }
+        }
+
+        parallel.undo();
+        assertThat(parallel.isOpen(300, 350), is(false));
+        assertThat(parallel.open(300, 350), is(opened));
+    }
+
+    @Test
+    public void chordOpensNeighboursOfSatisfiedNumber() throws Exception {
+        Board board = Board.create(5, 5, 0);
+        board.plantMine(new Pair<>(0, 0));
+        board.plantMine(new Pair<>(4, 4));
+        board.history(true);
+        board.open(0, 1);
+        assertThat(board.chord(0, 1), is(0));
+
+        board.toggleFlag(0, 0);
+        assertThat(board.chord(0, 1), is(22));
+        assertThat(board.isOpen(4, 3), is(true));
+        assertThat(board.status(), is(Board.Status.WON));
+
+        board.undo();
+        assertThat(board.isOpen(1, 1), is(false));
+        assertThat(board.isOpen(0, 1), is(true));
+    }
+
+    @Test
+    public void chordWithWrongFlagOpensMine() throws Exception {
+        Board board = Board.create(3, 3, 0);
+        board.plantMine(new Pair<>(0, 0));
+        board.open(1, 1);
+        board.toggleFlag(0, 1);
+
+        board.chord(1, 1);
+        assertThat(board.status(), is(Board.Status.LOST));
+        assertThat(board.isOpen(0, 0), is(true));
+    }
+
+    @Test
+    public void changedRegionCoversLastMove() throws Exception {
+        Board board = Board.create(10, 10, 0);
+        for (int j = 0; j < 10; j++) board.plantMine(new Pair<>(5, j));
+        assertThat(board.changed().isEmpty(), is(true));
+
+        board.open(0, 0);
+        assertRegion(board.changed(), 0, 0, 4, 9);
+        board.toggleFlag(9, 9);
+        assertRegion(board.changed(), 9, 9, 9, 9);
+        board.toggleFlag(5, 5);
+        board.open(7, 2);
+        assertRegion(board.changed(), 6, 0, 9, 9);
+        board.undo();
+        assertThat(board.changed().isEmpty(), is(true));
+    }
+
+    private static void assertRegion(Region region, int top, int left, int bottom, int right) {
+        assertThat(region.toString(), is(Region.of(top, left, bottom, right).toString()));
+    }
 }
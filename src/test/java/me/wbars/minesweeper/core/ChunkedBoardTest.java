@@ -0,0 +1,126 @@
+package me.wbars.minesweeper.core;
+
+import org.junit.Test;
+
+import static me.wbars.minesweeper.core.Cell.State.CLOSED;
+import static me.wbars.minesweeper.core.Cell.State.FLAG;
+import static me.wbars.minesweeper.core.Cell.State.OPEN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+
+public class ChunkedBoardTest {
+    @Test
+    public void minesMatchAcrossTiles() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(150, 130, 2000, 7);
+        board.open(70, 70);
+        assertThat(board.isMine(70, 70), is(false));
+
+        long mines = 0;
+        for (int i = 0; i < board.rows(); i++) {
+            for (int j = 0; j < board.cols(); j++) {
+                if (board.isMine(i, j)) mines++;
+                int around = 0;
+                for (int ni = Math.max(0, i - 1); ni <= Math.min(board.rows() - 1, i + 1); ni++) {
+                    for (int nj = Math.max(0, j - 1); nj <= Math.min(board.cols() - 1, j + 1); nj++) {
+                        if ((ni != i || nj != j) && board.isMine(ni, nj)) around++;
+                    }
+                }
+                assertThat(board.minesCount(i, j), is(around));
+            }
+        }
+        assertThat(mines, is(2000L));
+    }
+
+    @Test
+    public void sameSeedSameLayout() throws Exception {
+        ChunkedBoard a = ChunkedBoard.create(200, 200, 5000, 42);
+        ChunkedBoard b = ChunkedBoard.create(200, 200, 5000, 42);
+        a.open(10, 10);
+        b.open(10, 10);
+        for (int i = 199; i >= 0; i--) {
+            for (int j = 199; j >= 0; j--) {
+                assertThat(a.isMine(i, j), is(b.isMine(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void cascadeCrossesTiles() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(300, 300, 0, 1);
+        assertThat(board.open(0, 0), is(90000L));
+        assertThat(board.isOpen(299, 299), is(true));
+        assertThat(board.status(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void hugeBoardTouchesFewTiles() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(1_000_000, 1_000_000, 100_000_000_000L, 3);
+        long opened = board.open(500_000, 500_000);
+        assertThat(opened > 0, is(true));
+        assertThat(board.isMine(500_000, 500_000), is(false));
+        assertThat(board.status(), is(Board.Status.PLAYING));
+        assertThat(board.tiles(), lessThan(100));
+        assertThat(board.cellState(0, 0), is(CLOSED));
+        assertThat(board.tiles(), lessThan(100));
+    }
+
+    @Test
+    public void flagsSurviveMining() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(200, 200, 4000, 11);
+        board.flag(199, 199);
+        assertThat(board.cellState(199, 199), is(FLAG));
+        assertThat(board.isWin(), is(false));
+        board.open(0, 0);
+        assertThat(board.cellState(199, 199), is(FLAG));
+        assertThat(board.toggleFlag(199, 199), is(false));
+    }
+
+    @Test
+    public void steppingOnMineLoses() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(100, 100, 9999, 5);
+        board.open(50, 50);
+        assertThat(board.isOpen(50, 50), is(true));
+        board.open(0, 0);
+        assertThat(board.status(), is(Board.Status.LOST));
+        assertThat(board.cellState(0, 0), is(OPEN));
+    }
+
+    @Test
+    public void firstOpenSafeWhenItsTileShareIsFull() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(128, 64, 8191, 1L);
+        assertThat(board.open(10, 100), is(1L));
+        int mines = 0;
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 128; j++) {
+                if (board.isMine(i, j)) mines++;
+            }
+        }
+        assertThat(mines, is(8191));
+        assertThat(board.isMine(10, 100), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBoardFullOfMines() throws Exception {
+        ChunkedBoard.create(10, 10, 100, 1L);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void cellStateChecksIndexes() throws Exception {
+        ChunkedBoard.create(10, 10, 1, 1L).cellState(10, 0);
+    }
+
+    @Test
+    public void flaggingAllMinesWins() throws Exception {
+        ChunkedBoard board = ChunkedBoard.create(70, 70, 1, 9);
+        board.flag(0, 0);
+        board.open(69, 69);
+        for (int i = 0; i < 70; i++) {
+            for (int j = 0; j < 70; j++) {
+                if (board.isMine(i, j) && !board.isFlag(i, j)) board.flag(i, j);
+            }
+        }
+        if (board.isFlag(0, 0) && !board.isMine(0, 0)) board.toggleFlag(0, 0);
+        assertThat(board.isWin(), is(true));
+    }
+}
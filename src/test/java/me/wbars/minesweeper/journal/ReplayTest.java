@@ -0,0 +1,134 @@
+package me.wbars.minesweeper.journal;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.core.MoveListener;
+import me.wbars.minesweeper.solver.Solver;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ReplayTest {
+    @Test
+    public void replayReachesEveryPosition() throws Exception {
+        Board board = Board.create(30, 16, 99, 3L);
+        board.safeNeighbourhood(true);
+        List<String> positions = new ArrayList<>();
+        positions.add(board.toString());
+        board.listener(new Recorder(board, positions));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MoveJournal journal = MoveJournal.record(board, out);
+
+        new Solver(board).solve();
+        board.reveal(true);
+        journal.flush();
+
+        Replay replay = Replay.read(new ByteArrayInputStream(out.toByteArray()), 4);
+        assertThat(replay.moves(), is(positions.size() - 1));
+        assertThat(replay.seed(), is(3L));
+        assertThat(replay.play().toString(), is(board.toString()));
+        for (int move : Arrays.asList(replay.moves() / 2, 1, replay.moves() - 1, 0, replay.moves() / 3)) {
+            assertThat(replay.board(move).toString(), is(positions.get(move)));
+        }
+        for (int move = 1; move < replay.moves(); move++) {
+            assertThat(replay.time(move) >= replay.time(move - 1), is(true));
+        }
+    }
+
+    @Test
+    public void undoneMovesAreReplayed() throws Exception {
+        Board board = Board.create(9, 9, 10, 5L);
+        board.history(true);
+        List<String> positions = new ArrayList<>();
+        positions.add(board.toString());
+        board.listener(new Recorder(board, positions));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MoveJournal.record(board, out);
+
+        board.open(4, 4);
+        board.undo();
+        board.open(4, 4);
+        int[] closed = closedCells(board);
+        board.toggleFlag(closed[0] / 9, closed[0] % 9);
+        board.undo();
+        board.redo();
+        board.toggleFlag(closed[1] / 9, closed[1] % 9);
+
+        Replay replay = Replay.read(new ByteArrayInputStream(out.toByteArray()), 2);
+        assertThat(replay.moves(), is(7));
+        assertThat(replay.play().toString(), is(board.toString()));
+        for (int move = replay.moves(); move >= 0; move--) {
+            assertThat(replay.board(move).toString(), is(positions.get(move)));
+        }
+    }
+
+    @Test
+    public void tornRecordIsDropped() throws Exception {
+        Board board = Board.create(9, 9, 10, 1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MoveJournal.record(board, out);
+        board.open(4, 4);
+        board.toggleFlag(0, 0);
+        board.toggleFlag(0, 0);
+        byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+
+        Replay replay = Replay.read(new ByteArrayInputStream(bytes));
+        assertThat(replay.moves(), is(2));
+        assertThat(replay.play().isFlag(0, 0), is(true));
+    }
+
+    private static int[] closedCells(Board board) {
+        int[] closed = new int[2];
+        int found = 0;
+        for (int index = 0; index < board.cols() * board.rows() && found < closed.length; index++) {
+            if (!board.isOpen(index / board.cols(), index % board.cols())) closed[found++] = index;
+        }
+        return closed;
+    }
+
+    private static class Recorder implements MoveListener {
+        private final Board board;
+        private final List<String> positions;
+
+        Recorder(Board board, List<String> positions) {
+            this.board = board;
+            this.positions = positions;
+        }
+
+        @Override
+        public void opened(int i, int j, int cells) {
+            positions.add(board.toString());
+        }
+
+        @Override
+        public void flagged(int i, int j, boolean flag) {
+            positions.add(board.toString());
+        }
+
+        @Override
+        public void chorded(int i, int j, int cells) {
+            positions.add(board.toString());
+        }
+
+        @Override
+        public void revealed(boolean showMines) {
+            positions.add(board.toString());
+        }
+
+        @Override
+        public void undone() {
+            positions.add(board.toString());
+        }
+
+        @Override
+        public void redone() {
+            positions.add(board.toString());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package me.wbars.minesweeper.sim;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SimulationTest {
+    @Test
+    public void resultsDoNotDependOnThreads() throws Exception {
+        Simulation simulation = new Simulation(16, 16, 40, Player::solver);
+        SimulationReport single = simulation.run(300, 5L, 1);
+        SimulationReport parallel = simulation.run(300, 5L, 4);
+
+        assertThat(single.games(), is(300L));
+        assertThat(parallel.wins(), is(single.wins()));
+        assertThat(parallel.losses(), is(single.losses()));
+        assertThat(parallel.meanMoves(), is(single.meanMoves()));
+        assertThat(parallel.maxCascade(), is(single.maxCascade()));
+    }
+
+    @Test
+    public void everyGameFinishes() throws Exception {
+        SimulationReport report = new Simulation(9, 9, 10, Player::random).run(200, 1L, 2);
+        assertThat(report.wins() + report.losses(), is(200L));
+    }
+}
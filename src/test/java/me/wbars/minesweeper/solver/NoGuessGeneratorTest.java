@@ -0,0 +1,37 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class NoGuessGeneratorTest {
+    @Test
+    public void generatedBoardSolvableByLogic() throws Exception {
+        for (long seed = 0; seed < 5; seed++) {
+            Board board = new NoGuessGenerator().generate(30, 16, 99, seed);
+            assertThat(board.isOpen(8, 15), is(true));
+            assertThat(new Solver(board, false).solve(), is(Board.Status.WON));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameBoardWithAnyParallelism() throws Exception {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(8);
+        Board first = new NoGuessGenerator(single).generate(16, 16, 40, 11L, 3, 3);
+        Board second = new NoGuessGenerator(many).generate(16, 16, 40, 11L, 3, 3);
+        single.shutdown();
+        many.shutdown();
+
+        assertThat(first.fingerprint(), is(second.fingerprint()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failsWhenNoCandidateFits() throws Exception {
+        new NoGuessGenerator(ForkJoinPool.commonPool(), 20).generate(30, 16, 200, 0L);
+    }
+}
@@ -0,0 +1,92 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.util.Pair;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+
+public class ProbabilityCalculatorTest {
+    @Test
+    public void matchesEnumerationOfAllLayouts() throws Exception {
+        for (long seed = 0; seed < 40; seed++) {
+            Board board = Board.create(5, 4, 5, seed, new Pair<>(0, 0));
+            board.open(0, 0);
+            assertMatchesEnumeration(board, new ProbabilityCalculator(board).compute());
+        }
+    }
+
+    @Test
+    public void parallelMatchesEnumeration() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (long seed = 0; seed < 40; seed++) {
+            Board board = Board.create(6, 4, 4, seed, new Pair<>(0, 0));
+            board.open(0, 0);
+            if (board.status() == Board.Status.PLAYING && !board.isOpen(3, 5) && !board.isMine(3, 5)) {
+                board.open(3, 5);
+            }
+            assertMatchesEnumeration(board, new ProbabilityCalculator(board, pool).compute());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void expertBoardProbabilitiesSumToMinesLeft() throws Exception {
+        Board board = Board.create(30, 16, 99, 3L, new Pair<>(8, 15));
+        new Solver(board, false).start(8, 15);
+        double[] probabilities = new ProbabilityCalculator(board, ForkJoinPool.commonPool()).compute();
+
+        double sum = 0;
+        for (int i = 0; i < board.rows(); i++) {
+            for (int j = 0; j < board.cols(); j++) {
+                if (!board.isOpen(i, j)) sum += probabilities[i * board.cols() + j];
+            }
+        }
+        assertThat(sum, closeTo(99, 1e-6));
+    }
+
+    private void assertMatchesEnumeration(Board board, double[] probabilities) {
+        if (board.status() != Board.Status.PLAYING) return;
+        int area = board.cols() * board.rows();
+        int[] unknown = new int[area];
+        int unknownCells = 0;
+        for (int index = 0; index < area; index++) {
+            if (!board.isOpen(index / board.cols(), index % board.cols())) unknown[unknownCells++] = index;
+        }
+
+        long layouts = 0;
+        long[] mineLayouts = new long[area];
+        for (int mask = 0; mask < 1 << unknownCells; mask++) {
+            if (Integer.bitCount(mask) != board.minesCount()) continue;
+            boolean[] mines = new boolean[area];
+            for (int k = 0; k < unknownCells; k++) if ((mask & 1 << k) != 0) mines[unknown[k]] = true;
+            if (!consistent(board, mines)) continue;
+            layouts++;
+            for (int k = 0; k < unknownCells; k++) if (mines[unknown[k]]) mineLayouts[unknown[k]]++;
+        }
+
+        for (int k = 0; k < unknownCells; k++) {
+            int cell = unknown[k];
+            assertThat(probabilities[cell], closeTo((double) mineLayouts[cell] / layouts, 1e-9));
+        }
+    }
+
+    private boolean consistent(Board board, boolean[] mines) {
+        for (int i = 0; i < board.rows(); i++) {
+            for (int j = 0; j < board.cols(); j++) {
+                if (!board.isOpen(i, j)) continue;
+                int count = 0;
+                for (int ni = i - 1; ni <= i + 1; ni++) {
+                    for (int nj = j - 1; nj <= j + 1; nj++) {
+                        if (board.hasIndexes(ni, nj) && mines[ni * board.cols() + nj]) count++;
+                    }
+                }
+                if (count != board.minesCount(i, j)) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package me.wbars.minesweeper.solver;
+
+import me.wbars.minesweeper.core.Board;
+import me.wbars.minesweeper.util.Pair;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+
+public class SolverTest {
+    @Test
+    public void logicOnlySolverNeverLoses() throws Exception {
+        for (long seed = 0; seed < 300; seed++) {
+            Board board = Board.create(30, 16, 99, seed, new Pair<>(8, 15));
+            Solver solver = new Solver(board, false);
+            solver.start(8, 15);
+            assertThat(solver.solve(), not(Board.Status.LOST));
+            assertThat(solver.guesses(), is(0));
+        }
+    }
+
+    @Test
+    public void resetSolverPlaysLikeNewOne() throws Exception {
+        Board reused = Board.create(16, 16, 40, 0L);
+        Solver solver = new Solver(reused);
+        for (long seed = 1; seed < 50; seed++) {
+            reused.reset(seed);
+            solver.reset();
+            Board fresh = Board.create(16, 16, 40, seed);
+            Solver freshSolver = new Solver(fresh);
+            assertThat(solver.solve(), is(freshSolver.solve()));
+            assertThat(solver.guesses(), is(freshSolver.guesses()));
+            assertThat(reused.fingerprint(), is(fresh.fingerprint()));
+        }
+    }
+
+    @Test
+    public void emptyBoardSolvedWithOneClick() throws Exception {
+        Board board = Board.create(9, 9, 0);
+        assertThat(new Solver(board).solve(), is(Board.Status.WON));
+    }
+
+    @Test
+    public void fullyDeterminedBoardSolvedWithoutGuesses() throws Exception {
+        Board board = Board.create(9, 9, 80, 1L);
+        Solver solver = new Solver(board, false);
+        assertThat(solver.solve(), is(Board.Status.WON));
+        assertThat(solver.guesses(), is(0));
+    }
+
+    @Test
+    public void winsMostBeginnerGames() throws Exception {
+        int wins = 0;
+        for (long seed = 0; seed < 500; seed++) {
+            if (new Solver(Board.create(9, 9, 10, seed)).solve() == Board.Status.WON) wins++;
+        }
+        assertThat(wins, greaterThan(400));
+    }
+
+    @Test
+    public void finishesExpertGames() throws Exception {
+        int wins = 0;
+        for (long seed = 0; seed < 500; seed++) {
+            Board.Status status = new Solver(Board.create(30, 16, 99, seed)).solve();
+            assertThat(status, not(Board.Status.PLAYING));
+            if (status == Board.Status.WON) wins++;
+        }
+        assertThat(wins, greaterThan(100));
+    }
+}
@@ -0,0 +1,48 @@
+package me.wbars.minesweeper.ui;
+
+import me.wbars.minesweeper.core.Board;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class BoardMipmapTest {
+    @Test
+    public void levelsAreMeansOfCells() throws Exception {
+        Board board = Board.create(5, 3, 0);
+        board.toggleFlag(0, 0);
+        BoardMipmap mipmap = new BoardMipmap(board);
+
+        assertThat(mipmap.maxLevel(), is(3));
+        assertThat(mipmap.cols(1), is(3));
+        assertThat(mipmap.rows(1), is(2));
+        assertThat(mipmap.shade(1, 0, 0), is((BoardMipmap.FLAG + 3 * BoardMipmap.CLOSED) / 4));
+        assertThat(mipmap.shade(1, 1, 2), is(BoardMipmap.CLOSED));
+    }
+
+    @Test
+    public void incrementalUpdatesMatchRebuild() throws Exception {
+        Board board = Board.create(77, 45, 400, 9L);
+        BoardMipmap mipmap = new BoardMipmap(board);
+        Random random = new Random(1);
+        while (board.status() == Board.Status.PLAYING) {
+            int i = random.nextInt(board.rows());
+            int j = random.nextInt(board.cols());
+            if (board.isOpen(i, j)) continue;
+            if (random.nextInt(4) == 0) board.toggleFlag(i, j);
+            else board.open(i, j);
+            mipmap.update(board.changed());
+        }
+
+        BoardMipmap rebuilt = new BoardMipmap(board);
+        for (int level = 0; level <= mipmap.maxLevel(); level++) {
+            for (int i = 0; i < mipmap.rows(level); i++) {
+                for (int j = 0; j < mipmap.cols(level); j++) {
+                    assertThat(mipmap.shade(level, i, j), is(rebuilt.shade(level, i, j)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package me.wbars.minesweeper.ui;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class GameClockTest {
+    private long now = 1234567;
+
+    @Test
+    public void countsFromStartTillStop() throws Exception {
+        GameClock clock = new GameClock(new MyCounter(), () -> now);
+        clock.pause(true);
+        now += seconds(5);
+        assertThat(clock.elapsed(), is(0L));
+
+        clock.start();
+        now += seconds(3);
+        clock.start();
+        assertThat(clock.elapsed(), is(seconds(3)));
+
+        clock.stop();
+        now += seconds(1);
+        assertThat(clock.isRunning(), is(false));
+        assertThat(clock.elapsed(), is(seconds(3)));
+
+        clock.reset();
+        clock.start();
+        now += seconds(2);
+        assertThat(clock.elapsed(), is(seconds(2)));
+        clock.stop();
+    }
+
+    @Test
+    public void wakesUpAtNextTick() throws Exception {
+        assertThat(GameClock.delay(0), is(100));
+        assertThat(GameClock.delay(TimeUnit.MILLISECONDS.toNanos(1234)), is(66));
+        assertThat(GameClock.delay(TimeUnit.MILLISECONDS.toNanos(1234) + 1), is(66));
+        assertThat(GameClock.delay(GameClock.TICK - 1), is(1));
+    }
+
+    private static long seconds(int seconds) {
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+}